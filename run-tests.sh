@@ -6,6 +6,8 @@
 #   -a, --all        執行所有測試（預設）
 #   -s, --service    只執行 Service 層測試
 #   -c, --controller 只執行 Controller 層測試
+#   -l, --load       執行端到端負載測試（可附加 -Dload.devices=... 等參數）
+#   -t, --thread-modes 以平台執行緒及虛擬執行緒模式各執行一次負載測試（虛擬執行緒需要 Java 21+）
 #   -h, --help       顯示幫助訊息
 
 set -e
@@ -25,6 +27,8 @@ show_help() {
     echo "  -a, --all        執行所有測試（預設）"
     echo "  -s, --service    只執行 Service 層測試"
     echo "  -c, --controller 只執行 Controller 層測試"
+    echo "  -l, --load       執行端到端負載測試（可附加 -Dload.devices=... 等參數）"
+    echo "  -t, --thread-modes 以平台執行緒及虛擬執行緒模式各執行一次負載測試（虛擬執行緒需要 Java 21+）"
     echo "  -h, --help       顯示幫助訊息"
     echo ""
 }
@@ -47,6 +51,20 @@ run_controller_tests() {
     mvn clean test -Dtest=AuditRegisterControllerTest
 }
 
+# 執行端到端負載測試
+run_load_test() {
+    echo -e "${BLUE}執行端到端負載測試...${NC}"
+    mvn test -Pbenchmark -Dtest=AuditRegisterLoadTest "$@"
+}
+
+# 以兩種執行緒模式各執行一次負載測試，結果分別寫入 target/load-test-platform.json 及 target/load-test-virtual.json
+run_thread_mode_tests() {
+    echo -e "${BLUE}執行負載測試（平台執行緒）...${NC}"
+    mvn test -Pbenchmark -Dtest=AuditRegisterLoadTest -Dspring.threads.virtual.enabled=false -Dload.concurrency=200 "$@"
+    echo -e "${BLUE}執行負載測試（虛擬執行緒）...${NC}"
+    mvn test -Pbenchmark -Dtest=AuditRegisterLoadTest -Dspring.threads.virtual.enabled=true -Dload.concurrency=200 "$@"
+}
+
 # 解析參數
 case "${1:-}" in
     -h|--help)
@@ -59,6 +77,14 @@ case "${1:-}" in
     -c|--controller)
         run_controller_tests
         ;;
+    -l|--load)
+        shift
+        run_load_test "$@"
+        ;;
+    -t|--thread-modes)
+        shift
+        run_thread_mode_tests "$@"
+        ;;
     -a|--all|"")
         run_all_tests
         ;;
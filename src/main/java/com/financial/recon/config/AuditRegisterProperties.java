@@ -0,0 +1,277 @@
+package com.financial.recon.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 審計註冊處理配置
+ * 對應 application.yml 中的 recon.audit-register.* 設定
+ */
+@Data
+@ConfigurationProperties(prefix = "recon.audit-register")
+public class AuditRegisterProperties {
+
+    /**
+     * MIRROR_AR / MIRROR_AR_DETAIL 每個 JDBC 批次的列數，
+     * 同時作為 hibernate.jdbc.batch_size
+     */
+    private int batchSize = 50;
+
+    /**
+     * 每個資料庫交易處理的交易筆數；0 表示整個請求在同一個資料庫交易中處理
+     */
+    private int chunkSize = 0;
+
+    /**
+     * MIRROR_AR 參考ID產生設定
+     */
+    private ReferenceId referenceId = new ReferenceId();
+
+    /**
+     * 客戶端請求冪等設定
+     */
+    private Idempotency idempotency = new Idempotency();
+
+    /**
+     * 資料庫存取並行數限制設定
+     */
+    private DbConcurrency dbConcurrency = new DbConcurrency();
+
+    /**
+     * 按設備分片並行處理設定
+     */
+    private Parallel parallel = new Parallel();
+
+    /**
+     * 串流處理端點設定
+     */
+    private Streaming streaming = new Streaming();
+
+    /**
+     * 非同步處理端點設定
+     */
+    private Async async = new Async();
+
+    /**
+     * 設備最大 AR 序列號快取設定
+     */
+    private SeqNumCache seqNumCache = new SeqNumCache();
+
+    /**
+     * 已處理序列號追蹤（重送檢測、缺號查詢）設定
+     */
+    private SeqTracking seqTracking = new SeqTracking();
+
+    /**
+     * DEVICE_AR_SUMMARY 延遲寫入（write-behind）設定
+     */
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * 例外表（MIRROR_AR_EX / MIRROR_AR_DETAIL_EX）非同步批次寫入設定
+     */
+    private DeadLetter deadLetter = new DeadLetter();
+
+    /**
+     * 管理端點啟動的 JFR 錄製設定
+     */
+    private FlightRecording flightRecording = new FlightRecording();
+
+    /**
+     * 審計註冊指標設定
+     */
+    private Metrics metrics = new Metrics();
+
+    @Data
+    public static class ReferenceId {
+
+        /**
+         * 產生方式：time-ordered（依時間遞增，預設）或 uuid（隨機）
+         */
+        private String generator = "time-ordered";
+
+        /**
+         * time-ordered 的節點ID（0-1023），多實例部署時每個實例須不同；-1 表示啟動時隨機產生 50 位元的節點欄位（ID 變為 23 個字元）
+         */
+        private int nodeId = -1;
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /**
+         * 是否啟用；啟用後相同 X-Client-Request-Identifier 的重試直接返回首次處理的響應
+         */
+        private boolean enabled = true;
+
+        /**
+         * 記憶體中最多快取的響應數，超過時淘汰最久未使用者（資料表中的記錄不受影響）
+         */
+        private int cacheMaxEntries = 10000;
+    }
+
+    @Data
+    public static class DbConcurrency {
+
+        /**
+         * 同時進行的資料庫存取數上限；0 表示連線池的 maximum-pool-size 減一（保留一條給管理端點及健康檢查）；
+         * 自行設定時須小於 maximum-pool-size
+         */
+        private int maxConcurrent = 0;
+
+        /**
+         * 等待許可的最長時間，超過時返回 503
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Parallel {
+
+        /**
+         * 是否啟用；啟用後請求中的交易按 deviceId 分片，各分片在獨立的資料庫交易中並行處理
+         */
+        private boolean enabled = false;
+
+        /**
+         * 並行工作執行緒數（同時也是分片數），每個分片佔用一個資料庫連線
+         */
+        private int workerThreads = 4;
+    }
+
+    @Data
+    public static class Streaming {
+
+        /**
+         * 串流讀取時每累積多少筆交易就處理並提交一次，決定串流處理的記憶體上限
+         */
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Async {
+
+        /**
+         * 背景處理執行緒數
+         */
+        private int workerThreads = 2;
+
+        /**
+         * 等待處理的請求數上限，超過時返回 503
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * 已完成的受理單保留多久供查詢
+         */
+        private Duration ticketRetention = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * 是否啟用；啟用後摘要增量先在記憶體中合併，由背景執行緒定期寫入。
+         * 須同時關閉 seq-tracking，否則啟動失敗
+         */
+        private boolean enabled = false;
+
+        /**
+         * 定期寫入間隔
+         */
+        private Duration flushInterval = Duration.ofSeconds(5);
+
+        /**
+         * 緩衝的主鍵數達到此值時立即觸發寫入
+         */
+        private int maxBufferedKeys = 10000;
+    }
+
+    @Data
+    public static class DeadLetter {
+
+        /**
+         * 等待寫入的失敗交易數上限，超過時丟棄並計入 dropped
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * 每個資料庫交易寫入的失敗交易數；佇列累積到此數量時立即觸發寫入
+         */
+        private int batchSize = 100;
+
+        /**
+         * 每筆失敗交易最多嘗試寫入的次數，之後記錄日誌並計入 poisoned，不再重試
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * 定期寫入間隔
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class FlightRecording {
+
+        /**
+         * 是否註冊 /v1/ar/admin/flightRecording 端點；錄製檔含執行緒堆疊等內部資訊，預設關閉
+         */
+        private boolean enabled = false;
+
+        /**
+         * JFR 內建設定檔：default（開銷約 1%）或 profile（更多取樣，開銷約 2%）
+         */
+        private String settings = "profile";
+
+        /**
+         * 錄製時間上限，到時自動停止；停止後仍可下載
+         */
+        private Duration maxDuration = Duration.ofMinutes(10);
+
+        /**
+         * 只保留最近這段時間的資料
+         */
+        private Duration maxAge = Duration.ofMinutes(10);
+
+        /**
+         * 錄製資料大小上限，超過時丟棄最舊的資料
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(100);
+    }
+
+    @Data
+    public static class SeqNumCache {
+
+        /**
+         * 是否啟用；啟用後重啟檢測優先使用程序內快取，只在未命中時查詢資料庫
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最多快取的 (deviceId, beId, businessDate) 組合數，超過時淘汰最久未使用者
+         */
+        private int maxEntries = 100000;
+    }
+
+    @Data
+    public static class SeqTracking {
+
+        /**
+         * 是否啟用；啟用後已處理過的序列號會被跳過，不再重複累計。不可與 write-behind 同時啟用
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * 是否計算每個請求的資料庫往返次數（recon.ar.db.round.trips）；關閉時不包裝 DataSource
+         */
+        private boolean dbRoundTrips = true;
+    }
+}
@@ -0,0 +1,91 @@
+package com.financial.recon.config;
+
+import com.financial.recon.repository.RoundTripCountingDataSource;
+import com.financial.recon.service.AuditRegisterMetrics;
+import com.financial.recon.service.AuditRegisterMetrics.Stage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * 審計註冊指標的接線
+ * DataSource 包上 RoundTripCountingDataSource 以計算每個請求的資料庫往返次數（metrics.db-round-trips 可關閉）；
+ * MVC 的 @Valid 驗證包上計時，記入 recon.ar.stage{stage="validation"}
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<jakarta.validation.Validator> beanValidator;
+    private final ObjectProvider<AuditRegisterMetrics> metrics;
+
+    public MetricsConfig(ObjectProvider<jakarta.validation.Validator> beanValidator,
+                         ObjectProvider<AuditRegisterMetrics> metrics) {
+        this.beanValidator = beanValidator;
+        this.metrics = metrics;
+    }
+
+    /**
+     * static：BeanPostProcessor 須在其他 bean 之前建立，不能依賴本配置類別的實例
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "recon.audit-register.metrics", name = "db-round-trips",
+            havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor roundTripCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof RoundTripCountingDataSource)) {
+                    return new RoundTripCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public Validator getValidator() {
+        return new TimedValidator(new SpringValidatorAdapter(beanValidator.getObject()), metrics);
+    }
+
+    /**
+     * 驗證耗時計時；AuditRegisterMetrics 延遲取得，避免 MVC 配置提早建立服務層 bean
+     */
+    static class TimedValidator implements SmartValidator {
+
+        private final SmartValidator delegate;
+        private final ObjectProvider<AuditRegisterMetrics> metrics;
+
+        TimedValidator(SmartValidator delegate, ObjectProvider<AuditRegisterMetrics> metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+            return delegate.supports(clazz);
+        }
+
+        @Override
+        public void validate(Object target, Errors errors) {
+            long start = System.nanoTime();
+            delegate.validate(target, errors);
+            metrics.getObject().recordStageSince(Stage.VALIDATION, start);
+        }
+
+        @Override
+        public void validate(Object target, Errors errors, Object... validationHints) {
+            long start = System.nanoTime();
+            delegate.validate(target, errors, validationHints);
+            metrics.getObject().recordStageSince(Stage.VALIDATION, start);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.financial.recon.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 請求及響應的傳輸格式
+ * 除 JSON 外支援兩種二進位格式，依 Content-Type / Accept 選擇，對應相同的 DTO：
+ * CBOR（application/cbor）及 Smile（application/x-jackson-smile）。
+ * Smile 會以回溯參照取代重複的欄位名稱，交易明細多時內容最小，適合走行動網路的設備
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * 以 Spring Boot 配置好的 Jackson2ObjectMapperBuilder 建立，日期格式等 spring.jackson.* 設定與 JSON 一致
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
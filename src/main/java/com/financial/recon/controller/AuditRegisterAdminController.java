@@ -0,0 +1,57 @@
+package com.financial.recon.controller;
+
+import com.financial.recon.dto.DbConcurrencyStats;
+import com.financial.recon.dto.DeadLetterStats;
+import com.financial.recon.dto.IdempotencyStats;
+import com.financial.recon.dto.SeqNumCacheStats;
+import com.financial.recon.dto.SummaryWriteBehindStats;
+import com.financial.recon.service.AuditRegisterIdempotencyGuard;
+import com.financial.recon.service.DatabaseConcurrencyLimiter;
+import com.financial.recon.service.DeadLetterWriter;
+import com.financial.recon.service.DeviceSeqNumCache;
+import com.financial.recon.service.SummaryWriteBehindBuffer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 審計註冊管理端點，提供調校用的內部狀態
+ */
+@RestController
+@RequestMapping("/v1/ar/admin")
+@RequiredArgsConstructor
+public class AuditRegisterAdminController {
+
+    private final SummaryWriteBehindBuffer summaryWriteBehindBuffer;
+    private final DeviceSeqNumCache deviceSeqNumCache;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final AuditRegisterIdempotencyGuard auditRegisterIdempotencyGuard;
+    private final DeadLetterWriter deadLetterWriter;
+
+    @GetMapping("/summaryWriteBehind")
+    public ResponseEntity<SummaryWriteBehindStats> summaryWriteBehindStats() {
+        return ResponseEntity.ok(summaryWriteBehindBuffer.getStats());
+    }
+
+    @GetMapping("/seqNumCache")
+    public ResponseEntity<SeqNumCacheStats> seqNumCacheStats() {
+        return ResponseEntity.ok(deviceSeqNumCache.getStats());
+    }
+
+    @GetMapping("/dbConcurrency")
+    public ResponseEntity<DbConcurrencyStats> dbConcurrencyStats() {
+        return ResponseEntity.ok(databaseConcurrencyLimiter.getStats());
+    }
+
+    @GetMapping("/idempotency")
+    public ResponseEntity<IdempotencyStats> idempotencyStats() {
+        return ResponseEntity.ok(auditRegisterIdempotencyGuard.getStats());
+    }
+
+    @GetMapping("/deadLetter")
+    public ResponseEntity<DeadLetterStats> deadLetterStats() {
+        return ResponseEntity.ok(deadLetterWriter.getStats());
+    }
+}
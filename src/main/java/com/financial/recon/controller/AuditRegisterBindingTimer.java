@@ -0,0 +1,52 @@
+package com.financial.recon.controller;
+
+import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.service.AuditRegisterMetrics;
+import com.financial.recon.service.AuditRegisterMetrics.Stage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * AuditRegisterRequest 請求內容反序列化（JSON / CBOR / Smile）的耗時，記入 recon.ar.stage{stage="binding"}
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class AuditRegisterBindingTimer extends RequestBodyAdviceAdapter {
+
+    private static final String START_ATTRIBUTE = AuditRegisterBindingTimer.class.getName() + ".start";
+
+    private final AuditRegisterMetrics metrics;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == AuditRegisterRequest.class;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(START_ATTRIBUTE, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        Object start = RequestContextHolder.currentRequestAttributes()
+                .getAttribute(START_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (start instanceof Long startNanos) {
+            metrics.recordStageSince(Stage.BINDING, startNanos);
+        }
+        return body;
+    }
+}
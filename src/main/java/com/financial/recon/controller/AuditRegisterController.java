@@ -2,14 +2,27 @@ package com.financial.recon.controller;
 
 import com.financial.recon.dto.AuditRegisterRequest;
 import com.financial.recon.dto.AuditRegisterResponse;
+import com.financial.recon.dto.AuditRegisterTicket;
+import com.financial.recon.dto.BulkIngestResponse;
+import com.financial.recon.dto.SeqNumGapReport;
+import com.financial.recon.service.AuditRegisterAsyncProcessor;
+import com.financial.recon.service.AuditRegisterIdempotencyGuard;
 import com.financial.recon.service.AuditRegisterService;
+import com.financial.recon.service.AuditRegisterStreamProcessor;
+import com.financial.recon.service.DeviceSeqNumTracker;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
+
 @Slf4j
 @RestController
 @RequestMapping("/v1/ar")
@@ -17,6 +30,10 @@ import org.springframework.web.bind.annotation.*;
 public class AuditRegisterController {
 
     private final AuditRegisterService auditRegisterService;
+    private final AuditRegisterIdempotencyGuard auditRegisterIdempotencyGuard;
+    private final DeviceSeqNumTracker deviceSeqNumTracker;
+    private final AuditRegisterAsyncProcessor auditRegisterAsyncProcessor;
+    private final AuditRegisterStreamProcessor auditRegisterStreamProcessor;
 
     @PostMapping("/auditRegister")
     public ResponseEntity<AuditRegisterResponse> auditRegister(
@@ -26,8 +43,9 @@ public class AuditRegisterController {
         log.info("Received audit register request. ClientRequestId: {}, TransactionCount: {}", 
                 clientRequestId, request.getAuditRegisterTxns().size());
 
-        AuditRegisterResponse response = auditRegisterService.processAuditRegister(
-                request, clientRequestId != null ? clientRequestId : "UNKNOWN");
+        String requestId = clientRequestId != null ? clientRequestId : "UNKNOWN";
+        AuditRegisterResponse response = auditRegisterIdempotencyGuard.execute(requestId, request,
+                () -> auditRegisterService.processAuditRegister(request, requestId));
 
         HttpStatus status = "SUCCESS".equals(response.getResponseCode()) 
                 ? HttpStatus.OK 
@@ -37,5 +55,97 @@ public class AuditRegisterController {
                 .header("X-Client-Request-Identifier", clientRequestId != null ? clientRequestId : "")
                 .body(response);
     }
-}
 
+    /**
+     * 串流處理：請求格式與 /auditRegister 相同，但交易邊讀邊驗證、邊分段處理，
+     * 適用於離線設備日終補傳的大量交易；已處理的段在請求結束前就已提交
+     */
+    @PostMapping(value = "/auditRegister/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AuditRegisterResponse> auditRegisterStream(
+            @RequestHeader(value = "X-Client-Request-Identifier", required = false) String clientRequestId,
+            HttpServletRequest httpRequest) throws IOException {
+
+        log.info("Received streamed audit register request. ClientRequestId: {}, ContentLength: {}",
+                clientRequestId, httpRequest.getContentLengthLong());
+
+        AuditRegisterResponse response = auditRegisterStreamProcessor.processStream(
+                httpRequest.getInputStream(), clientRequestId != null ? clientRequestId : "UNKNOWN");
+
+        HttpStatus status = switch (response.getResponseCode()) {
+            case "SUCCESS" -> HttpStatus.OK;
+            case "VALIDATION_ERROR" -> HttpStatus.BAD_REQUEST;
+            default -> HttpStatus.ACCEPTED;
+        };
+
+        return ResponseEntity.status(status)
+                .header("X-Client-Request-Identifier", clientRequestId != null ? clientRequestId : "")
+                .body(response);
+    }
+
+    /**
+     * NDJSON 批量上傳：每行一筆 AuditRegisterTransaction，邊讀邊分段處理，
+     * 供集中器直接轉送多台設備的積壓交易；返回逐行結果摘要
+     */
+    @PostMapping(value = "/auditRegister/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkIngestResponse> auditRegisterBulk(
+            @RequestHeader(value = "X-Client-Request-Identifier", required = false) String clientRequestId,
+            HttpServletRequest httpRequest) throws IOException {
+
+        log.info("Received bulk audit register upload. ClientRequestId: {}, ContentLength: {}",
+                clientRequestId, httpRequest.getContentLengthLong());
+
+        BulkIngestResponse response = auditRegisterStreamProcessor.processNdjson(
+                httpRequest.getInputStream(), clientRequestId != null ? clientRequestId : "UNKNOWN");
+
+        HttpStatus status = switch (response.getResponseCode()) {
+            case "SUCCESS" -> HttpStatus.OK;
+            case "VALIDATION_ERROR" -> HttpStatus.BAD_REQUEST;
+            default -> HttpStatus.ACCEPTED;
+        };
+
+        return ResponseEntity.status(status)
+                .header("X-Client-Request-Identifier", clientRequestId != null ? clientRequestId : "")
+                .body(response);
+    }
+
+    /**
+     * 非同步受理：驗證後放入處理佇列，立即返回 202 及受理單，
+     * 處理結果透過 GET /v1/ar/auditRegister/tickets/{ticketId} 查詢
+     */
+    @PostMapping("/auditRegister/async")
+    public ResponseEntity<AuditRegisterTicket> auditRegisterAsync(
+            @RequestHeader(value = "X-Client-Request-Identifier", required = false) String clientRequestId,
+            @Valid @RequestBody AuditRegisterRequest request) {
+
+        log.info("Received async audit register request. ClientRequestId: {}, TransactionCount: {}",
+                clientRequestId, request.getAuditRegisterTxns().size());
+
+        AuditRegisterTicket ticket = auditRegisterAsyncProcessor.submit(
+                request, clientRequestId != null ? clientRequestId : "UNKNOWN");
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header("X-Client-Request-Identifier", clientRequestId != null ? clientRequestId : "")
+                .header("Location", "/v1/ar/auditRegister/tickets/" + ticket.getTicketId())
+                .body(ticket);
+    }
+
+    @GetMapping("/auditRegister/tickets/{ticketId}")
+    public ResponseEntity<AuditRegisterTicket> ticketStatus(@PathVariable("ticketId") String ticketId) {
+        return auditRegisterAsyncProcessor.getTicket(ticketId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 查詢設備在某業務日期缺少的AR序列號，供對帳使用
+     */
+    @GetMapping("/seqGaps")
+    public ResponseEntity<SeqNumGapReport> seqGaps(
+            @RequestParam("deviceId") String deviceId,
+            @RequestParam("beId") Integer beId,
+            @RequestParam("businessDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate) {
+        return deviceSeqNumTracker.gapReport(deviceId, beId, businessDate)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,73 @@
+package com.financial.recon.controller;
+
+import com.financial.recon.dto.FlightRecordingStatus;
+import com.financial.recon.service.FlightRecordingManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * JFR 錄製管理端點
+ * 錄製內容包含執行緒堆疊、類別及 JVM 資訊，只在設定 recon.audit-register.flight-recording.enabled=true 時註冊；
+ * 開啟時應只在內部網路或管理閘道後開放 /v1/ar/admin/flightRecording/**
+ */
+@RestController
+@RequestMapping("/v1/ar/admin/flightRecording")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recon.audit-register.flight-recording", name = "enabled", havingValue = "true")
+public class FlightRecordingController {
+
+    private final FlightRecordingManager flightRecordingManager;
+
+    @GetMapping
+    public ResponseEntity<FlightRecordingStatus> flightRecordingStatus() {
+        return ResponseEntity.ok(flightRecordingManager.getStatus());
+    }
+
+    /**
+     * 開始 JFR 錄製；已在錄製中時返回 409
+     */
+    @PostMapping("/start")
+    public ResponseEntity<FlightRecordingStatus> startFlightRecording() throws IOException, ParseException {
+        boolean started = flightRecordingManager.start();
+        return ResponseEntity.status(started ? HttpStatus.OK : HttpStatus.CONFLICT)
+                .body(flightRecordingManager.getStatus());
+    }
+
+    /**
+     * 停止 JFR 錄製；沒有進行中的錄製時返回 409
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<FlightRecordingStatus> stopFlightRecording() {
+        boolean stopped = flightRecordingManager.stop();
+        return ResponseEntity.status(stopped ? HttpStatus.OK : HttpStatus.CONFLICT)
+                .body(flightRecordingManager.getStatus());
+    }
+
+    /**
+     * 下載目前的錄製內容（.jfr，可用 JDK Mission Control 或 jfr print 開啟）；沒有錄製時返回 404
+     */
+    @GetMapping("/download")
+    public ResponseEntity<Resource> downloadFlightRecording() throws IOException {
+        return flightRecordingManager.dump()
+                .<ResponseEntity<Resource>>map(stream -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename("audit-register.jfr").build().toString())
+                        .body(new InputStreamResource(stream)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
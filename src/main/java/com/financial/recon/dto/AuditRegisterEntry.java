@@ -1,5 +1,8 @@
 package com.financial.recon.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -14,6 +17,11 @@ public class AuditRegisterEntry {
     @NotNull(message = "count is required")
     private Integer count;
 
-    private Double value;
+    /**
+     * 金額，以分為單位；請求中仍為 "value": 1000.50
+     */
+    @JsonProperty("value")
+    @JsonSerialize(using = MinorUnitAmountSerializer.class)
+    @JsonDeserialize(using = MinorUnitAmountDeserializer.class)
+    private Long valueMinor;
 }
-
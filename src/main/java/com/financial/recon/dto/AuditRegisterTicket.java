@@ -0,0 +1,26 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 非同步處理的受理單
+ * status 為 QUEUED / PROCESSING / COMPLETED；COMPLETED 時 result 為處理結果
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditRegisterTicket {
+    private String ticketId;
+    private String clientRequestId;
+    private String status;
+    private int transactionCount;
+    private OffsetDateTime submittedTime;
+    private OffsetDateTime completedTime;
+    private AuditRegisterResponse result;
+}
@@ -0,0 +1,28 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * NDJSON 批量上傳結果
+ * 只列出未被接受的行；重送的交易只計數，不逐行列出
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIngestResponse {
+    private String responseCode;
+    private String responseMessage;
+    private long totalLines;
+    private int accepted;
+    private int duplicates;
+    private int invalid;
+    private int failed;
+    private List<BulkLineIssue> issues;
+    private boolean issuesTruncated;
+}
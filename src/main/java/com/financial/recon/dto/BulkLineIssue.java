@@ -0,0 +1,22 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * NDJSON 批量上傳中未被接受的一行
+ * status 為 INVALID（無法解析或驗證失敗）或 FAILED（處理失敗）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLineIssue {
+    private long line;
+    private String status;
+    private String deviceId;
+    private Integer auditRegisterSeqNum;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DbConcurrencyStats {
+    private boolean virtualThreads;
+    private int maxConcurrent;
+    private int inUse;
+    private int waiting;
+    private long acquired;
+    private long rejected;
+}
@@ -0,0 +1,23 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterStats {
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueued;
+    private long dropped;
+    private long written;
+    private long batchCount;
+    private long failedBatchCount;
+    private long poisoned;
+    private long lastBatchMillis;
+    private long maxBatchMillis;
+}
@@ -0,0 +1,26 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecordingStatus {
+    /**
+     * NONE（尚未錄製）、RUNNING、STOPPED 或 CLOSED
+     */
+    private String state;
+    private String settings;
+    private Instant startTime;
+    private Instant stopTime;
+    private long maxDurationSeconds;
+    private long maxAgeSeconds;
+    private long maxSizeBytes;
+    private long sizeBytes;
+}
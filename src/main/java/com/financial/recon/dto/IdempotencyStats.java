@@ -0,0 +1,20 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyStats {
+    private boolean enabled;
+    private int cachedResponses;
+    private int inFlight;
+    private long cacheHits;
+    private long tableHits;
+    private long coalesced;
+    private long processed;
+}
@@ -0,0 +1,60 @@
+package com.financial.recon.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 把請求中的金額（例如 1000.50）直接轉為分（100050）
+ * 由數字的文字表示解析，不經過 double；CBOR / Smile 的二進位浮點數以其最短十進位表示解析。
+ * 金額必須是整分，不做任何捨入：小數超過 2 位時只容忍與最近整分相差不超過 1e-9 的 double 殘差
+ *（例如用戶端以 double 相加得到的 0.30000000000000004），此時取該整分並記錄警告；
+ * 其他情況（例如 1.005）、非數字或超出 long 範圍時拒絕
+ */
+@Slf4j
+public class MinorUnitAmountDeserializer extends StdDeserializer<Long> {
+
+    /**
+     * 可視為 double 殘差的最大偏差
+     */
+    private static final BigDecimal DOUBLE_NOISE_TOLERANCE = new BigDecimal("1E-9");
+
+    public MinorUnitAmountDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                && token != JsonToken.VALUE_STRING) {
+            return (Long) context.handleUnexpectedToken(Long.class, parser);
+        }
+        String text = parser.getText().trim();
+        try {
+            BigDecimal amount = new BigDecimal(text);
+            if (amount.scale() > MinorUnits.SCALE) {
+                BigDecimal cents = amount.setScale(MinorUnits.SCALE, RoundingMode.HALF_EVEN);
+                if (amount.subtract(cents).abs().compareTo(DOUBLE_NOISE_TOLERANCE) > 0) {
+                    throw InvalidFormatException.from(parser, "Amount must be a number with at most "
+                            + MinorUnits.SCALE + " decimal places within the supported range", text, Long.class);
+                }
+                log.warn("Amount {} at {} is within floating-point noise of {}, using {}",
+                        text, parser.getParsingContext().pathAsPointer(), cents, cents);
+                amount = cents;
+            }
+            return MinorUnits.fromDecimal(amount);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw InvalidFormatException.from(parser,
+                    "Amount must be a number with at most " + MinorUnits.SCALE
+                            + " decimal places within the supported range", text, Long.class);
+        }
+    }
+}
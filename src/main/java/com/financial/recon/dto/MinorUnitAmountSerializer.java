@@ -0,0 +1,22 @@
+package com.financial.recon.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * 把分輸出為金額（100050 輸出為 1000.50），與請求格式一致
+ */
+public class MinorUnitAmountSerializer extends StdSerializer<Long> {
+
+    public MinorUnitAmountSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long minorUnits, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeNumber(MinorUnits.toDecimal(minorUnits));
+    }
+}
@@ -0,0 +1,33 @@
+package com.financial.recon.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 金額以 long 最小單位（分）表示：反序列化時直接轉成分，聚合時用 long 相加，
+ * 只在寫入資料庫時轉回 BigDecimal。所有運算檢查溢位，溢位時拋 ArithmeticException
+ */
+public final class MinorUnits {
+
+    /**
+     * 小數位數，與 DEVICE_AR_SUMMARY.TOTAL_VALUE 的 scale 一致
+     */
+    public static final int SCALE = 2;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * 金額轉分；小數超過 2 位或超出 long 範圍時拋 ArithmeticException，不做四捨五入
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long add(long augend, long addend) {
+        return Math.addExact(augend, addend);
+    }
+}
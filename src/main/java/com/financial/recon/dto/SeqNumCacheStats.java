@@ -0,0 +1,19 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeqNumCacheStats {
+    private boolean enabled;
+    private int size;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    private double hitRate;
+}
@@ -0,0 +1,26 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeqNumGapReport {
+    private String deviceId;
+    private Integer beId;
+    private LocalDate businessDate;
+    private Integer epoch;
+    private Integer minSeqNum;
+    private Integer maxSeqNum;
+    private long processedCount;
+    private List<SeqNumRange> gaps;
+    private OffsetDateTime lastTxnTime;
+}
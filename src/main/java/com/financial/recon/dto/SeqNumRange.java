@@ -0,0 +1,16 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 連續的 AR 序列號區間（含兩端）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeqNumRange {
+    private int from;
+    private int to;
+}
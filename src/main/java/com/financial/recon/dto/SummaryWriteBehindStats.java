@@ -0,0 +1,24 @@
+package com.financial.recon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SummaryWriteBehindStats {
+    private boolean enabled;
+    private int bufferedKeys;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long flushCount;
+    private long failedFlushCount;
+    private long flushedKeys;
+    private long lastFlushMillis;
+    private long maxFlushMillis;
+    private double avgFlushMillis;
+}
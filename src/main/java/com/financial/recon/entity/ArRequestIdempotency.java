@@ -0,0 +1,45 @@
+package com.financial.recon.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 客戶端請求冪等記錄
+ * 每個 X-Client-Request-Identifier 一筆，保存首次處理的響應，重試時直接返回
+ */
+@Entity
+@Table(name = "AR_REQUEST_IDEMPOTENCY")
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArRequestIdempotency extends InsertOnlyEntity<String> {
+    @Id
+    @Column(name = "CLIENT_REQUEST_ID", length = 100, nullable = false)
+    private String clientRequestId;
+
+    @Column(name = "REQUEST_HASH", length = 64, nullable = false)
+    private String requestHash;
+
+    @Column(name = "RESPONSE_CODE", length = 30, nullable = false)
+    private String responseCode;
+
+    @Lob
+    @Column(name = "RESPONSE_BODY", nullable = false)
+    private String responseBody;
+
+    @Column(name = "CREATED_TIME", nullable = false)
+    private OffsetDateTime createdTime;
+
+    @Override
+    public String getId() {
+        return clientRequestId;
+    }
+}
@@ -0,0 +1,70 @@
+package com.financial.recon.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * 設備已處理的AR序列號集合
+ * 每個設備在每個業務日期一筆，以連續區間壓縮儲存，用於跳過重送的交易及查詢缺號
+ * 設備重啟（序列號重置）時 EPOCH 加一並重新開始記錄，重啟前的集合移到 PREV_SEQ_RUNS，
+ * 用於識別重啟後才到達的重啟前交易重送
+ */
+@Entity
+@Table(name = "DEVICE_AR_SEQ_SET")
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(DeviceArSeqSetId.class)
+public class DeviceArSeqSet extends InsertOnlyEntity<DeviceArSeqSetId> {
+    @Id
+    @Column(name = "DEVICE_ID", length = 20, nullable = false)
+    private String deviceId;
+
+    @Id
+    @Column(name = "BE_ID", precision = 10, scale = 0, nullable = false)
+    private Integer beId;
+
+    @Id
+    @Column(name = "BUSINESS_DATE", nullable = false)
+    private LocalDate businessDate;
+
+    @Column(name = "EPOCH", precision = 10, scale = 0, nullable = false)
+    private Integer epoch;
+
+    @Lob
+    @Column(name = "SEQ_RUNS")
+    private byte[] seqRuns;
+
+    @Column(name = "PROCESSED_COUNT", precision = 19, scale = 0, nullable = false)
+    private Long processedCount;
+
+    @Column(name = "LAST_TXN_TIME")
+    private OffsetDateTime lastTxnTime;
+
+    @Lob
+    @Column(name = "PREV_SEQ_RUNS")
+    private byte[] prevSeqRuns;
+
+    @Column(name = "PREV_LAST_TXN_TIME")
+    private OffsetDateTime prevLastTxnTime;
+
+    @Column(name = "LAST_UPDATED_TIME", nullable = false)
+    private OffsetDateTime lastUpdatedTime;
+
+    @Column(name = "CREATED_TIME", nullable = false)
+    private OffsetDateTime createdTime;
+
+    @Override
+    public DeviceArSeqSetId getId() {
+        return new DeviceArSeqSetId(deviceId, beId, businessDate);
+    }
+}
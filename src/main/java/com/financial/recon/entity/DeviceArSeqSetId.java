@@ -0,0 +1,27 @@
+package com.financial.recon.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceArSeqSetId implements Serializable {
+
+    /**
+     * 主鍵順序；插入及鎖定都按此順序進行，並發請求之間不會死結
+     */
+    public static final Comparator<DeviceArSeqSetId> PRIMARY_KEY_ORDER = Comparator
+            .comparing(DeviceArSeqSetId::getDeviceId)
+            .thenComparing(DeviceArSeqSetId::getBeId)
+            .thenComparing(DeviceArSeqSetId::getBusinessDate);
+
+    private String deviceId;
+    private Integer beId;
+    private LocalDate businessDate;
+}
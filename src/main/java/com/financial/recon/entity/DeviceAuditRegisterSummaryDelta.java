@@ -0,0 +1,48 @@
+package com.financial.recon.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 設備審計註冊摘要增量
+ * 表示要累加到 DEVICE_AR_SUMMARY 某一主鍵上的計數和金額；金額以分為單位，寫入時才轉為 BigDecimal
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceAuditRegisterSummaryDelta {
+    private DeviceAuditRegisterSummaryId id;
+    private long countDelta;
+    private long valueDeltaMinor;
+    private Integer lastArSeqNum;
+
+    /**
+     * 累加一個條目：計數和金額相加（溢位時拋 ArithmeticException），序列號保留最大值
+     */
+    public void add(long count, long valueMinor, Integer seqNum) {
+        long newCount = Math.addExact(countDelta, count);
+        long newValue = Math.addExact(valueDeltaMinor, valueMinor);
+        countDelta = newCount;
+        valueDeltaMinor = newValue;
+        if (seqNum != null && (lastArSeqNum == null || seqNum > lastArSeqNum)) {
+            lastArSeqNum = seqNum;
+        }
+    }
+
+    /**
+     * 合併另一個同主鍵的增量
+     */
+    public void add(DeviceAuditRegisterSummaryDelta other) {
+        add(other.countDelta, other.valueDeltaMinor, other.lastArSeqNum);
+    }
+
+    /**
+     * 複製一份獨立的增量，避免共用可變狀態
+     */
+    public DeviceAuditRegisterSummaryDelta copy() {
+        return new DeviceAuditRegisterSummaryDelta(id, countDelta, valueDeltaMinor, lastArSeqNum);
+    }
+}
@@ -0,0 +1,30 @@
+package com.financial.recon.entity;
+
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * 主鍵由應用程式指定的實體基類（主要用於只追加的表）
+ * 新建的實體預設視為新實體，讓 Spring Data 的 save() 走 em.persist，
+ * 避免 em.merge 在 INSERT 前先以主鍵 SELECT 一次；從資料庫載入後則照常更新
+ */
+@MappedSuperclass
+public abstract class InsertOnlyEntity<ID> implements Persistable<ID> {
+
+    @Transient
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
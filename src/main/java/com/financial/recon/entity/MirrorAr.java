@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.time.OffsetDateTime;
@@ -11,10 +12,11 @@ import java.time.OffsetDateTime;
 @Entity
 @Table(name = "MIRROR_AR")
 @Data
+@EqualsAndHashCode(callSuper = false)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class MirrorAr {
+public class MirrorAr extends InsertOnlyEntity<String> {
     @Id
     @Column(name = "REFERENCE_ID", length = 64)
     private String referenceId;
@@ -105,5 +107,9 @@ public class MirrorAr {
 
     @Column(name = "LAST_UPDATED_TIME")
     private OffsetDateTime lastUpdatedTime;
-}
 
+    @Override
+    public String getId() {
+        return referenceId;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
@@ -12,11 +13,12 @@ import java.time.OffsetDateTime;
 @Entity
 @Table(name = "MIRROR_AR_DETAIL")
 @Data
+@EqualsAndHashCode(callSuper = false)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @IdClass(MirrorArDetailId.class)
-public class MirrorArDetail {
+public class MirrorArDetail extends InsertOnlyEntity<MirrorArDetailId> {
     @Id
     @Column(name = "REFERENCE_ID", length = 64, nullable = false)
     private String referenceId;
@@ -43,5 +45,9 @@ public class MirrorArDetail {
 
     @Column(name = "LAST_UPDATED_TIME")
     private OffsetDateTime lastUpdatedTime;
-}
 
+    @Override
+    public MirrorArDetailId getId() {
+        return new MirrorArDetailId(referenceId, refRecordId, arEntryId);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
@@ -12,18 +13,22 @@ import java.time.OffsetDateTime;
 @Entity
 @Table(name = "MIRROR_AR_DETAIL_EX")
 @Data
+@EqualsAndHashCode(callSuper = false)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class MirrorArDetailEx {
+@IdClass(MirrorArDetailId.class)
+public class MirrorArDetailEx extends InsertOnlyEntity<MirrorArDetailId> {
     @Id
-    @Column(name = "REFERENCE_ID", length = 64)
+    @Column(name = "REFERENCE_ID", length = 64, nullable = false)
     private String referenceId;
 
-    @Column(name = "REF_RECORD_ID", length = 5)
+    @Id
+    @Column(name = "REF_RECORD_ID", length = 5, nullable = false)
     private String refRecordId;
 
-    @Column(name = "AR_ENTRY_ID", length = 5)
+    @Id
+    @Column(name = "AR_ENTRY_ID", length = 5, nullable = false)
     private String arEntryId;
 
     @Column(name = "AR_ID", length = 20)
@@ -40,5 +45,9 @@ public class MirrorArDetailEx {
 
     @Column(name = "LAST_UPDATED_TIME")
     private OffsetDateTime lastUpdatedTime;
-}
 
+    @Override
+    public MirrorArDetailId getId() {
+        return new MirrorArDetailId(referenceId, refRecordId, arEntryId);
+    }
+}
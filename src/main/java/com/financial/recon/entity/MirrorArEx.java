@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.time.OffsetDateTime;
@@ -11,10 +12,11 @@ import java.time.OffsetDateTime;
 @Entity
 @Table(name = "MIRROR_AR_EX")
 @Data
+@EqualsAndHashCode(callSuper = false)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class MirrorArEx {
+public class MirrorArEx extends InsertOnlyEntity<String> {
     @Id
     @Column(name = "REFERENCE_ID", length = 64)
     private String referenceId;
@@ -105,5 +107,9 @@ public class MirrorArEx {
 
     @Column(name = "LAST_UPDATED_TIME")
     private OffsetDateTime lastUpdatedTime;
-}
 
+    @Override
+    public String getId() {
+        return referenceId;
+    }
+}
@@ -0,0 +1,13 @@
+package com.financial.recon.exception;
+
+import java.time.Duration;
+
+/**
+ * 在限定時間內取不到資料庫存取許可，請求未被處理
+ */
+public class DatabaseBusyException extends RuntimeException {
+
+    public DatabaseBusyException(int maxConcurrent, Duration acquireTimeout) {
+        super("Database is busy: all " + maxConcurrent + " permits in use for " + acquireTimeout.toMillis() + "ms");
+    }
+}
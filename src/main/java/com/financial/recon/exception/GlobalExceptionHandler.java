@@ -4,10 +4,13 @@ import com.financial.recon.dto.AuditRegisterResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -41,6 +44,87 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<AuditRegisterResponse> handleMessageNotReadable(HttpMessageNotReadableException ex) {
+        log.warn("Malformed request body: {}", ex.getMessage());
+
+        AuditRegisterResponse response = AuditRegisterResponse.builder()
+                .responseCode("VALIDATION_ERROR")
+                .responseMessage("Malformed request body")
+                .errors(List.of(String.valueOf(ex.getMostSpecificCause().getMessage())))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<AuditRegisterResponse> handleMediaTypeNotSupported(HttpMediaTypeNotSupportedException ex) {
+        log.warn("Unsupported content type: {}", ex.getContentType());
+
+        AuditRegisterResponse response = AuditRegisterResponse.builder()
+                .responseCode("UNSUPPORTED_MEDIA_TYPE")
+                .responseMessage("Unsupported content type: " + ex.getContentType())
+                .errors(List.of(ex.getMessage()))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(response);
+    }
+
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<AuditRegisterResponse> handleIngestQueueFull(IngestQueueFullException ex) {
+        log.warn(ex.getMessage());
+
+        AuditRegisterResponse response = AuditRegisterResponse.builder()
+                .responseCode("QUEUE_FULL")
+                .responseMessage("Audit register queue is full, please retry later")
+                .errors(List.of(ex.getMessage()))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<AuditRegisterResponse> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        log.warn(ex.getMessage());
+
+        AuditRegisterResponse response = AuditRegisterResponse.builder()
+                .responseCode("IDEMPOTENCY_CONFLICT")
+                .responseMessage("Client request identifier reused for a different request")
+                .errors(List.of(ex.getMessage()))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<AuditRegisterResponse> handleDatabaseBusy(DatabaseBusyException ex) {
+        log.warn(ex.getMessage());
+
+        AuditRegisterResponse response = AuditRegisterResponse.builder()
+                .responseCode("DATABASE_BUSY")
+                .responseMessage("Database is busy, please retry later")
+                .errors(List.of(ex.getMessage()))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    /**
+     * 未註冊的路徑（包括未開啟的 JFR 錄製端點）返回 404，而不是交由下面的通用處理返回 500
+     */
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<AuditRegisterResponse> handleNoResourceFound(NoResourceFoundException ex) {
+        log.debug(ex.getMessage());
+
+        AuditRegisterResponse response = AuditRegisterResponse.builder()
+                .responseCode("NOT_FOUND")
+                .responseMessage("Resource not found")
+                .errors(List.of(ex.getMessage()))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<AuditRegisterResponse> handleGenericException(Exception ex) {
         log.error("Unexpected error occurred", ex);
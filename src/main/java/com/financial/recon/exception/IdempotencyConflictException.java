@@ -0,0 +1,11 @@
+package com.financial.recon.exception;
+
+/**
+ * 同一個客戶端請求識別碼被用於內容不同的請求
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String clientRequestId) {
+        super("X-Client-Request-Identifier " + clientRequestId + " was already used for a different request");
+    }
+}
@@ -0,0 +1,11 @@
+package com.financial.recon.exception;
+
+/**
+ * 非同步處理佇列已滿，請求未被受理
+ */
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(int capacity) {
+        super("Audit register ingest queue is full (capacity " + capacity + ")");
+    }
+}
@@ -0,0 +1,9 @@
+package com.financial.recon.repository;
+
+import com.financial.recon.entity.ArRequestIdempotency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArRequestIdempotencyRepository extends JpaRepository<ArRequestIdempotency, String> {
+}
@@ -0,0 +1,73 @@
+package com.financial.recon.repository;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 資料庫往返次數的計數範圍
+ * RoundTripCountingDataSource 每執行一次 SQL（批次算一次）、提交或回滾，
+ * 就累加到目前執行緒上開啟的範圍及其外層範圍；工作執行緒以 call() 加入呼叫端的範圍
+ */
+public final class DbRoundTripScope implements AutoCloseable {
+
+    private static final ThreadLocal<DbRoundTripScope> CURRENT = new ThreadLocal<>();
+
+    private final DbRoundTripScope parent;
+    private final AtomicLong count = new AtomicLong();
+
+    private DbRoundTripScope(DbRoundTripScope parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * 在目前執行緒開啟新範圍，須以 try-with-resources 關閉
+     */
+    public static DbRoundTripScope open() {
+        DbRoundTripScope scope = new DbRoundTripScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 在本範圍內執行 work（供其他執行緒使用），結束後還原該執行緒原本的範圍
+     */
+    public <T> T call(Callable<T> work) throws Exception {
+        DbRoundTripScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * 目前執行緒上是否有開啟的範圍
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    @Override
+    public void close() {
+        restore(parent);
+    }
+
+    static void increment() {
+        for (DbRoundTripScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.count.incrementAndGet();
+        }
+    }
+
+    private static void restore(DbRoundTripScope scope) {
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.financial.recon.repository;
+
+import com.financial.recon.entity.DeviceArSeqSet;
+import com.financial.recon.entity.DeviceArSeqSetId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DeviceArSeqSetRepository extends JpaRepository<DeviceArSeqSet, DeviceArSeqSetId>,
+        DeviceArSeqSetRepositoryCustom {
+}
@@ -0,0 +1,39 @@
+package com.financial.recon.repository;
+
+import com.financial.recon.entity.DeviceArSeqSet;
+import com.financial.recon.entity.DeviceArSeqSetId;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface DeviceArSeqSetRepositoryCustom {
+
+    /**
+     * 主鍵不存在時插入空的序列號集合，已存在時不做任何事
+     * Oracle 與 H2（Oracle 模式）共用同一條 MERGE 語句
+     */
+    String INSERT_MISSING_SQL =
+            "MERGE INTO DEVICE_AR_SEQ_SET t " +
+            "USING (SELECT CAST(:deviceId AS VARCHAR2(20)) AS DEVICE_ID, " +
+            "CAST(:beId AS NUMBER(10,0)) AS BE_ID, " +
+            "CAST(:businessDate AS DATE) AS BUSINESS_DATE FROM DUAL) s " +
+            "ON (t.DEVICE_ID = s.DEVICE_ID AND t.BE_ID = s.BE_ID AND t.BUSINESS_DATE = s.BUSINESS_DATE) " +
+            "WHEN NOT MATCHED THEN INSERT (DEVICE_ID, BE_ID, BUSINESS_DATE, EPOCH, PROCESSED_COUNT, " +
+            "LAST_UPDATED_TIME, CREATED_TIME) " +
+            "VALUES (s.DEVICE_ID, s.BE_ID, s.BUSINESS_DATE, 0, 0, :now, :now)";
+
+    /**
+     * 以一個 JDBC 批次確保所有主鍵都有記錄，之後 findForUpdate 才能鎖定首次上傳的設備
+     * 按主鍵順序插入，兩個請求同時插入相同的新主鍵時只會互相排隊，不會死結
+     */
+    void insertMissing(Collection<DeviceArSeqSetId> ids, OffsetDateTime now);
+
+    /**
+     * 按確切主鍵載入並鎖定序列號集合，只鎖請求涉及的 (deviceId, beId, businessDate)，
+     * 不會因設備 × 日期的交叉組合鎖到本次用不到的記錄
+     * 同一設備的並發上傳會在此排隊，避免兩邊同時判定同一筆交易不是重送；
+     * 記錄須先以 insertMissing 建立，並按主鍵順序鎖定，多設備的請求之間不會死結
+     */
+    List<DeviceArSeqSet> findForUpdate(Collection<DeviceArSeqSetId> ids);
+}
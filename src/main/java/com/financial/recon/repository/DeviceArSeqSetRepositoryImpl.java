@@ -0,0 +1,108 @@
+package com.financial.recon.repository;
+
+import com.financial.recon.entity.DeviceArSeqSet;
+import com.financial.recon.entity.DeviceArSeqSetId;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class DeviceArSeqSetRepositoryImpl implements DeviceArSeqSetRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final EntityManager entityManager;
+
+    @Override
+    public void insertMissing(Collection<DeviceArSeqSetId> ids, OffsetDateTime now) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = ids.stream()
+                .sorted(DeviceArSeqSetId.PRIMARY_KEY_ORDER)
+                .map(id -> new MapSqlParameterSource()
+                        .addValue("deviceId", id.getDeviceId())
+                        .addValue("beId", id.getBeId())
+                        .addValue("businessDate", id.getBusinessDate())
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new);
+
+        // 另一個請求先插入了相同主鍵並已提交時，MERGE 的 NOT MATCHED 分支會違反主鍵；
+        // 回滾到批次前的保存點後重做一次，此時記錄已存在，不再插入
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        Savepoint savepoint = setSavepoint(connection);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_MISSING_SQL, batch);
+        } catch (DuplicateKeyException e) {
+            if (savepoint == null) {
+                throw e;
+            }
+            log.warn("Concurrent insert detected while creating {} seq set row(s), retrying batch", ids.size());
+            rollbackTo(connection, savepoint);
+            jdbcTemplate.batchUpdate(INSERT_MISSING_SQL, batch);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    @Override
+    public List<DeviceArSeqSet> findForUpdate(Collection<DeviceArSeqSetId> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder jpql = new StringBuilder("SELECT s FROM DeviceArSeqSet s WHERE ");
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                jpql.append(" OR ");
+            }
+            jpql.append("(s.deviceId = :deviceId").append(i)
+                    .append(" AND s.beId = :beId").append(i)
+                    .append(" AND s.businessDate = :businessDate").append(i).append(')');
+        }
+        jpql.append(" ORDER BY s.deviceId, s.beId, s.businessDate");
+
+        TypedQuery<DeviceArSeqSet> query = entityManager.createQuery(jpql.toString(), DeviceArSeqSet.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        int i = 0;
+        for (DeviceArSeqSetId id : ids) {
+            query.setParameter("deviceId" + i, id.getDeviceId())
+                    .setParameter("beId" + i, id.getBeId())
+                    .setParameter("businessDate" + i, id.getBusinessDate());
+            i++;
+        }
+        return query.getResultList();
+    }
+
+    private Savepoint setSavepoint(Connection connection) {
+        try {
+            return connection.getAutoCommit() ? null : connection.setSavepoint();
+        } catch (SQLException e) {
+            log.debug("Savepoint not available, seq set insert will not be retried", e);
+            return null;
+        }
+    }
+
+    private void rollbackTo(Connection connection, Savepoint savepoint) {
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to roll back to seq set insert savepoint", e);
+        }
+    }
+}
@@ -3,16 +3,21 @@ package com.financial.recon.repository;
 import com.financial.recon.entity.DeviceAuditRegisterSummary;
 import com.financial.recon.entity.DeviceAuditRegisterSummaryId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DeviceAuditRegisterSummaryRepository extends JpaRepository<DeviceAuditRegisterSummary, DeviceAuditRegisterSummaryId> {
+public interface DeviceAuditRegisterSummaryRepository extends JpaRepository<DeviceAuditRegisterSummary, DeviceAuditRegisterSummaryId>,
+        DeviceAuditRegisterSummaryRepositoryCustom {
 
     /**
      * 查詢指定設備在指定業務日期的所有摘要記錄
@@ -35,5 +40,31 @@ public interface DeviceAuditRegisterSummaryRepository extends JpaRepository<Devi
             @Param("deviceId") String deviceId,
             @Param("beId") Integer beId,
             @Param("businessDate") LocalDate businessDate);
-}
 
+    /**
+     * 一次查詢多個設備、多個業務日期的最大AR序列號，用於請求開始時批量預取重啟檢測狀態
+     * 結果按 (deviceId, beId, businessDate) 分組，呼叫方需自行過濾不屬於請求的組合
+     */
+    @Query("SELECT d.deviceId AS deviceId, d.beId AS beId, d.businessDate AS businessDate, " +
+           "MAX(d.lastArSeqNum) AS maxArSeqNum FROM DeviceAuditRegisterSummary d " +
+           "WHERE d.deviceId IN :deviceIds AND d.businessDate IN :businessDates " +
+           "GROUP BY d.deviceId, d.beId, d.businessDate")
+    List<DeviceMaxArSeqNum> findMaxArSeqNumsByDevicesAndDates(
+            @Param("deviceIds") Collection<String> deviceIds,
+            @Param("businessDates") Collection<LocalDate> businessDates);
+
+    /**
+     * 原子累加單一摘要記錄（MERGE），取代查詢後在 Java 中修改再保存的做法
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = UPSERT_SQL, nativeQuery = true)
+    int upsert(@Param("deviceId") String deviceId,
+               @Param("beId") Integer beId,
+               @Param("businessDate") LocalDate businessDate,
+               @Param("arTypeIdentifier") String arTypeIdentifier,
+               @Param("cardMediaTypeId") String cardMediaTypeId,
+               @Param("countDelta") long countDelta,
+               @Param("valueDelta") BigDecimal valueDelta,
+               @Param("lastArSeqNum") Integer lastArSeqNum,
+               @Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,38 @@
+package com.financial.recon.repository;
+
+import com.financial.recon.entity.DeviceAuditRegisterSummaryDelta;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+public interface DeviceAuditRegisterSummaryRepositoryCustom {
+
+    /**
+     * 原子累加摘要：主鍵存在時在 SQL 內加上計數和金額增量，不存在時插入新記錄
+     * LAST_AR_SEQ_NUM 只會變大，重送、延遲到達、並行分片或寫後緩衝的舊增量不會把它調低
+     * Oracle 與 H2（Oracle 模式）共用同一條 MERGE 語句
+     */
+    String UPSERT_SQL =
+            "MERGE INTO DEVICE_AR_SUMMARY t " +
+            "USING (SELECT CAST(:deviceId AS VARCHAR2(20)) AS DEVICE_ID, " +
+            "CAST(:beId AS NUMBER(10,0)) AS BE_ID, " +
+            "CAST(:businessDate AS DATE) AS BUSINESS_DATE, " +
+            "CAST(:arTypeIdentifier AS VARCHAR2(20)) AS AR_TYPE_IDENTIFIER, " +
+            "CAST(:cardMediaTypeId AS VARCHAR2(20)) AS CARD_MEDIA_TYPE_ID FROM DUAL) s " +
+            "ON (t.DEVICE_ID = s.DEVICE_ID AND t.BE_ID = s.BE_ID AND t.BUSINESS_DATE = s.BUSINESS_DATE " +
+            "AND t.AR_TYPE_IDENTIFIER = s.AR_TYPE_IDENTIFIER AND t.CARD_MEDIA_TYPE_ID = s.CARD_MEDIA_TYPE_ID) " +
+            "WHEN MATCHED THEN UPDATE SET " +
+            "TOTAL_COUNT = t.TOTAL_COUNT + :countDelta, " +
+            "TOTAL_VALUE = NVL(t.TOTAL_VALUE, 0) + :valueDelta, " +
+            "LAST_AR_SEQ_NUM = GREATEST(NVL(t.LAST_AR_SEQ_NUM, :lastArSeqNum), :lastArSeqNum), " +
+            "LAST_UPDATED_TIME = :now " +
+            "WHEN NOT MATCHED THEN INSERT (DEVICE_ID, BE_ID, BUSINESS_DATE, AR_TYPE_IDENTIFIER, CARD_MEDIA_TYPE_ID, " +
+            "TOTAL_COUNT, TOTAL_VALUE, LAST_AR_SEQ_NUM, LAST_UPDATED_TIME, CREATED_TIME) " +
+            "VALUES (s.DEVICE_ID, s.BE_ID, s.BUSINESS_DATE, s.AR_TYPE_IDENTIFIER, s.CARD_MEDIA_TYPE_ID, " +
+            ":countDelta, :valueDelta, :lastArSeqNum, :now, :now)";
+
+    /**
+     * 以 JDBC 批次一次累加多個主鍵的摘要增量
+     */
+    void upsertAll(Collection<DeviceAuditRegisterSummaryDelta> deltas, OffsetDateTime now);
+}
@@ -0,0 +1,85 @@
+package com.financial.recon.repository;
+
+import com.financial.recon.dto.MinorUnits;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryDelta;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryId;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+@Slf4j
+@RequiredArgsConstructor
+public class DeviceAuditRegisterSummaryRepositoryImpl implements DeviceAuditRegisterSummaryRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    @Override
+    public void upsertAll(Collection<DeviceAuditRegisterSummaryDelta> deltas, OffsetDateTime now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = deltas.stream()
+                .map(delta -> toParameters(delta, now))
+                .toArray(SqlParameterSource[]::new);
+
+        // 兩個請求同時為同一個新主鍵走 NOT MATCHED 分支時，後到者會違反主鍵；
+        // 回滾到批次前的保存點後重做一次，此時記錄已存在，會走 MATCHED 分支累加
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        Savepoint savepoint = setSavepoint(connection);
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        } catch (DuplicateKeyException e) {
+            if (savepoint == null) {
+                throw e;
+            }
+            log.warn("Concurrent insert detected while upserting {} summary row(s), retrying batch", deltas.size());
+            rollbackTo(connection, savepoint);
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private SqlParameterSource toParameters(DeviceAuditRegisterSummaryDelta delta, OffsetDateTime now) {
+        DeviceAuditRegisterSummaryId id = delta.getId();
+        return new MapSqlParameterSource()
+                .addValue("deviceId", id.getDeviceId())
+                .addValue("beId", id.getBeId())
+                .addValue("businessDate", id.getBusinessDate())
+                .addValue("arTypeIdentifier", id.getArTypeIdentifier())
+                .addValue("cardMediaTypeId", id.getCardMediaTypeId())
+                .addValue("countDelta", delta.getCountDelta())
+                .addValue("valueDelta", MinorUnits.toDecimal(delta.getValueDeltaMinor()))
+                .addValue("lastArSeqNum", delta.getLastArSeqNum())
+                .addValue("now", now);
+    }
+
+    private Savepoint setSavepoint(Connection connection) {
+        try {
+            return connection.getAutoCommit() ? null : connection.setSavepoint();
+        } catch (SQLException e) {
+            log.debug("Savepoint not available, summary upsert will not be retried", e);
+            return null;
+        }
+    }
+
+    private void rollbackTo(Connection connection, Savepoint savepoint) {
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to roll back to summary upsert savepoint", e);
+        }
+    }
+}
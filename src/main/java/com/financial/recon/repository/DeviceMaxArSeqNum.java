@@ -0,0 +1,16 @@
+package com.financial.recon.repository;
+
+import java.time.LocalDate;
+
+/**
+ * 設備在某業務日期的最大 AR 序列號投影
+ */
+public interface DeviceMaxArSeqNum {
+    String getDeviceId();
+
+    Integer getBeId();
+
+    LocalDate getBusinessDate();
+
+    Integer getMaxArSeqNum();
+}
@@ -1,10 +1,11 @@
 package com.financial.recon.repository;
 
 import com.financial.recon.entity.MirrorArDetailEx;
+import com.financial.recon.entity.MirrorArDetailId;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface MirrorArDetailExRepository extends JpaRepository<MirrorArDetailEx, String> {
+public interface MirrorArDetailExRepository extends JpaRepository<MirrorArDetailEx, MirrorArDetailId> {
 }
 
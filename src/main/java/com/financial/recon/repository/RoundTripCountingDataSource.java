@@ -0,0 +1,93 @@
+package com.financial.recon.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 計算資料庫往返次數的 DataSource 包裝
+ * Hibernate 與 JdbcTemplate（摘要 MERGE）都經過此 DataSource，Statement 的 execute* / executeBatch
+ * 以及 Connection 的 commit / rollback 各算一次往返，計入 DbRoundTripScope。
+ * 只在開啟範圍的執行緒上取得的連線才包上代理，其他路徑（冪等檢查、背景寫入等）直接使用原始連線
+ */
+public class RoundTripCountingDataSource extends DelegatingDataSource {
+
+    public RoundTripCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        if (!DbRoundTripScope.isActive()) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, (method, result) -> {
+            switch (method.getName()) {
+                case "commit", "rollback" -> DbRoundTripScope.increment();
+                case "createStatement" -> {
+                    return proxy(Statement.class, (Statement) result, RoundTripCountingDataSource::countExecute);
+                }
+                case "prepareStatement" -> {
+                    return proxy(PreparedStatement.class, (PreparedStatement) result,
+                            RoundTripCountingDataSource::countExecute);
+                }
+                case "prepareCall" -> {
+                    return proxy(CallableStatement.class, (CallableStatement) result,
+                            RoundTripCountingDataSource::countExecute);
+                }
+                default -> {
+                }
+            }
+            return result;
+        });
+    }
+
+    private static Object countExecute(Method method, Object result) {
+        if (method.getName().startsWith("execute")) {
+            DbRoundTripScope.increment();
+        }
+        return result;
+    }
+
+    /**
+     * 轉呼叫 target，呼叫成功後交給 afterCall 計數或包裝返回值；equals / hashCode 以代理本身為準
+     */
+    private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> {
+                try {
+                    yield afterCall.apply(method, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(RoundTripCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    @FunctionalInterface
+    private interface AfterCall {
+        Object apply(Method method, Object result);
+    }
+}
@@ -0,0 +1,131 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.dto.AuditRegisterResponse;
+import com.financial.recon.dto.AuditRegisterTicket;
+import com.financial.recon.exception.IngestQueueFullException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 審計註冊非同步處理
+ * 請求放入有界佇列後立即返回受理單，由固定數量的背景執行緒依序交給 AuditRegisterService 處理；
+ * 佇列滿時拒絕受理，讓設備稍後重送，而不是佔用 Tomcat 執行緒等待
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditRegisterAsyncProcessor {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    private final AuditRegisterService auditRegisterService;
+    private final AuditRegisterIdempotencyGuard auditRegisterIdempotencyGuard;
+    private final AuditRegisterProperties properties;
+    private final WorkerThreadFactory workerThreadFactory;
+
+    private final Map<String, AuditRegisterTicket> tickets = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AuditRegisterProperties.Async async = properties.getAsync();
+        executor = new ThreadPoolExecutor(async.getWorkerThreads(), async.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(async.getQueueCapacity()),
+                workerThreadFactory.named("audit-register-async-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Audit register async queue did not drain before shutdown. Pending: {}",
+                        executor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 受理請求；佇列已滿時拋出 IngestQueueFullException
+     */
+    public AuditRegisterTicket submit(AuditRegisterRequest request, String clientRequestId) {
+        evictExpiredTickets();
+
+        AuditRegisterTicket ticket = AuditRegisterTicket.builder()
+                .ticketId(UUID.randomUUID().toString().replace("-", "").toUpperCase())
+                .clientRequestId(clientRequestId)
+                .status(STATUS_QUEUED)
+                .transactionCount(request.getAuditRegisterTxns().size())
+                .submittedTime(OffsetDateTime.now())
+                .build();
+        tickets.put(ticket.getTicketId(), ticket);
+
+        try {
+            executor.execute(() -> process(ticket.getTicketId(), request, clientRequestId));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.getTicketId());
+            log.warn("Rejected audit register request. ClientRequestId: {}, queued: {}",
+                    clientRequestId, executor.getQueue().size());
+            throw new IngestQueueFullException(properties.getAsync().getQueueCapacity());
+        }
+        return ticket;
+    }
+
+    public Optional<AuditRegisterTicket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId));
+    }
+
+    private void process(String ticketId, AuditRegisterRequest request, String clientRequestId) {
+        tickets.computeIfPresent(ticketId, (id, t) -> t.toBuilder().status(STATUS_PROCESSING).build());
+
+        AuditRegisterResponse response;
+        try {
+            response = auditRegisterIdempotencyGuard.execute(clientRequestId, request,
+                    () -> auditRegisterService.processAuditRegister(request, clientRequestId));
+        } catch (Exception e) {
+            log.error("Unexpected error processing queued audit register request. TicketId: {}", ticketId, e);
+            response = AuditRegisterResponse.builder()
+                    .responseCode("ERROR")
+                    .responseMessage("Failed to process audit register request: " + e.getMessage())
+                    .errors(List.of(String.valueOf(e.getMessage())))
+                    .build();
+        }
+
+        AuditRegisterResponse result = response;
+        tickets.computeIfPresent(ticketId, (id, t) -> t.toBuilder()
+                .status(STATUS_COMPLETED)
+                .completedTime(OffsetDateTime.now())
+                .result(result)
+                .build());
+    }
+
+    /**
+     * 移除已完成且超過保留時間的受理單
+     */
+    private void evictExpiredTickets() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(properties.getAsync().getTicketRetention());
+        tickets.values().removeIf(t -> t.getCompletedTime() != null && t.getCompletedTime().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,32 @@
+package com.financial.recon.service;
+
+import com.financial.recon.entity.MirrorAr;
+import com.financial.recon.entity.MirrorArDetail;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 單次處理的寫入上下文
+ * 收集 MIRROR_AR / MIRROR_AR_DETAIL 列和摘要增量，最後按表分組批次寫入
+ */
+@Getter
+class AuditRegisterBatchContext {
+
+    private final String clientRequestId;
+    private final RequestClock clock;
+    private final DeviceSeqNumSnapshot seqNumSnapshot;
+    private final SeqNumTracking seqNumTracking;
+    private final List<MirrorAr> mirrorArs = new ArrayList<>();
+    private final List<MirrorArDetail> mirrorArDetails = new ArrayList<>();
+    private final DeviceSummaryAggregator summaryAggregator = new DeviceSummaryAggregator();
+
+    AuditRegisterBatchContext(String clientRequestId, RequestClock clock, DeviceSeqNumSnapshot seqNumSnapshot,
+                              SeqNumTracking seqNumTracking) {
+        this.clientRequestId = clientRequestId;
+        this.clock = clock;
+        this.seqNumSnapshot = seqNumSnapshot;
+        this.seqNumTracking = seqNumTracking;
+    }
+}
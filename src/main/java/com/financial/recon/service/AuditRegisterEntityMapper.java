@@ -0,0 +1,194 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.AuditRegisterEntry;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.dto.MinorUnits;
+import com.financial.recon.entity.MirrorAr;
+import com.financial.recon.entity.MirrorArDetail;
+import com.financial.recon.entity.MirrorArDetailEx;
+import com.financial.recon.entity.MirrorArEx;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 交易 DTO 轉 MIRROR_AR / MIRROR_AR_DETAIL（及例外表）實體
+ * 時間取自請求的時鐘快照；明細序號字串預先產生；交易類型拆分結果按原字串快取，
+ * 每列只配置實體本身及 UDSN 字串
+ */
+@Component
+public class AuditRegisterEntityMapper {
+
+    static final String DEFAULT_REF_RECORD_ID = "001"; // Default value, can be configured
+
+    /**
+     * 交易類型種類有限，超過上限後不再快取，避免異常輸入撐大記憶體
+     */
+    private static final int TXN_TYPE_CACHE_LIMIT = 1024;
+    private static final int PRECOMPUTED_ENTRY_IDS = 1000;
+    private static final String[] ENTRY_IDS = new String[PRECOMPUTED_ENTRY_IDS];
+    private static final TxnTypeSplit UNKNOWN_TXN_TYPE = new TxnTypeSplit("UNK", "000");
+
+    static {
+        for (int i = 0; i < PRECOMPUTED_ENTRY_IDS; i++) {
+            ENTRY_IDS[i] = String.format("%03d", i);
+        }
+    }
+
+    private final Map<String, TxnTypeSplit> txnTypeSplits = new ConcurrentHashMap<>();
+
+    public MirrorAr toMirrorAr(AuditRegisterTransaction txn, String referenceId, RequestClock clock) {
+        TxnTypeSplit txnType = splitTxnType(txn.getTransactionType());
+        return MirrorAr.builder()
+                .referenceId(referenceId)
+                .refRecordId(DEFAULT_REF_RECORD_ID)
+                .refTotalCount(txn.getAuditRegisterEntries().size())
+                .txnType(txnType.getType())
+                .txnSubtype(txnType.getSubtype())
+                .endTxnTime(txn.getTransactionDateTime())
+                .udsn(udsn(txn, clock))
+                .deviceId(txn.getDeviceId())
+                .hardwareType(txn.getDeviceTypeId())
+                .serviceMode(txn.getDeviceSpecialMode())
+                .beId(txn.getBeId())
+                .auditRegisterSeqNum(txn.getAuditRegisterSeqNum())
+                .businessDate(clock.startOf(txn.getBusinessDate()))
+                .settlementDate(clock.now()) // Set to current time, can be configured based on business rules
+                .receivedTime(clock.now())
+                .lastUpdatedTime(clock.now())
+                .physicalDeviceId(txn.getEquipmentId())
+                .build();
+    }
+
+    public MirrorArDetail toMirrorArDetail(AuditRegisterEntry entry, String referenceId, int entryIndex,
+                                           RequestClock clock) {
+        return MirrorArDetail.builder()
+                .referenceId(referenceId)
+                .refRecordId(DEFAULT_REF_RECORD_ID)
+                .arEntryId(entryId(entryIndex))
+                .arId(entry.getArTypeIdentifier())
+                .idType(parseIdType(entry.getCardMediaTypeId()))
+                .count(entry.getCount() != null ? entry.getCount().longValue() : null)
+                .value(entry.getValueMinor() != null ? MinorUnits.toDecimal(entry.getValueMinor()) : null)
+                .lastUpdatedTime(clock.now())
+                .build();
+    }
+
+    public MirrorArEx toMirrorArEx(AuditRegisterTransaction txn, String referenceId, RequestClock clock) {
+        TxnTypeSplit txnType = splitTxnType(txn.getTransactionType());
+        return MirrorArEx.builder()
+                .referenceId(referenceId)
+                .refRecordId(DEFAULT_REF_RECORD_ID)
+                .refTotalCount(txn.getAuditRegisterEntries().size())
+                .txnType(txnType.getType())
+                .txnSubtype(txnType.getSubtype())
+                .endTxnTime(txn.getTransactionDateTime())
+                .udsn(udsn(txn, clock))
+                .deviceId(txn.getDeviceId())
+                .hardwareType(txn.getDeviceTypeId())
+                .serviceMode(txn.getDeviceSpecialMode())
+                .beId(txn.getBeId())
+                .auditRegisterSeqNum(txn.getAuditRegisterSeqNum())
+                .businessDate(clock.startOf(txn.getBusinessDate()))
+                .settlementDate(clock.now())
+                .receivedTime(clock.now())
+                .lastUpdatedTime(clock.now())
+                .physicalDeviceId(txn.getEquipmentId())
+                .build();
+    }
+
+    public MirrorArDetailEx toMirrorArDetailEx(AuditRegisterEntry entry, String referenceId, int entryIndex,
+                                               RequestClock clock) {
+        return MirrorArDetailEx.builder()
+                .referenceId(referenceId)
+                .refRecordId(DEFAULT_REF_RECORD_ID)
+                .arEntryId(entryId(entryIndex))
+                .arId(entry.getArTypeIdentifier())
+                .idType(entry.getCardMediaTypeId())
+                .count(entry.getCount() != null ? entry.getCount().longValue() : null)
+                .value(entry.getValueMinor() != null ? MinorUnits.toDecimal(entry.getValueMinor()) : null)
+                .lastUpdatedTime(clock.now())
+                .build();
+    }
+
+    /**
+     * 明細序號，三位數補零；1000 以上直接轉字串（與 %03d 相同）
+     */
+    static String entryId(int entryIndex) {
+        return entryIndex >= 0 && entryIndex < PRECOMPUTED_ENTRY_IDS
+                ? ENTRY_IDS[entryIndex] : Integer.toString(entryIndex);
+    }
+
+    /**
+     * UDSN = deviceId-seqNum-請求時間戳-請求內序號
+     * 整個請求共用一個時間戳，原本每次呼叫讀取時鐘的做法在同一請求內幾乎不會重複，
+     * 改以請求內遞增序號區分同一請求中相同設備及序列號的交易
+     */
+    static String udsn(AuditRegisterTransaction txn, RequestClock clock) {
+        return txn.getDeviceId() + '-' + txn.getAuditRegisterSeqNum() + '-' + clock.epochMillis()
+                + '-' + clock.nextUdsnSequence();
+    }
+
+    /**
+     * 交易類型前 3 碼為類型、接著 3 碼為子類型；不足時類型取原值（null 為 UNK），子類型為 000
+     */
+    TxnTypeSplit splitTxnType(String transactionType) {
+        if (transactionType == null) {
+            return UNKNOWN_TXN_TYPE;
+        }
+        TxnTypeSplit split = txnTypeSplits.get(transactionType);
+        if (split == null) {
+            split = new TxnTypeSplit(
+                    transactionType.length() >= 3 ? transactionType.substring(0, 3) : transactionType,
+                    transactionType.length() >= 6 ? transactionType.substring(3, 6) : "000");
+            if (txnTypeSplits.size() < TXN_TYPE_CACHE_LIMIT) {
+                txnTypeSplits.putIfAbsent(transactionType, split);
+            }
+        }
+        return split;
+    }
+
+    /**
+     * 卡媒體類型轉整數；非數字（或超出 int 範圍）時取雜湊值
+     * 結果與 Integer.parseInt 加 NumberFormatException 後備相同，但不以例外控制流程
+     */
+    static Integer parseIdType(String cardMediaTypeId) {
+        if (cardMediaTypeId == null || cardMediaTypeId.isEmpty()) {
+            return 0;
+        }
+        int length = cardMediaTypeId.length();
+        char first = cardMediaTypeId.charAt(0);
+        boolean negative = first == '-';
+        int start = negative || first == '+' ? 1 : 0;
+        if (start < length) {
+            long value = 0;
+            int i = start;
+            for (; i < length; i++) {
+                int digit = Character.digit(cardMediaTypeId.charAt(i), 10);
+                if (digit < 0) {
+                    break;
+                }
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE + 1L) {
+                    break;
+                }
+            }
+            if (i == length) {
+                long signed = negative ? -value : value;
+                if (signed >= Integer.MIN_VALUE && signed <= Integer.MAX_VALUE) {
+                    return (int) signed;
+                }
+            }
+        }
+        // If not numeric, return hash code or default
+        return Math.abs(cardMediaTypeId.hashCode() % 1000000);
+    }
+
+    @Value
+    static class TxnTypeSplit {
+        String type;
+        String subtype;
+    }
+}
@@ -0,0 +1,110 @@
+package com.financial.recon.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 審計註冊寫入路徑的自訂 JFR 事件
+ * 事件的開始、結束時間及執行緒由 JFR 記錄；未錄製時 shouldCommit() 返回 false，欄位不會被填入。
+ * 可由 /v1/ar/admin/flightRecording 錄製（須設定 flight-recording.enabled=true），或以 -XX:StartFlightRecording 啟動時錄製
+ */
+final class AuditRegisterEvents {
+
+    private static final String CATEGORY = "Financial Recon";
+
+    private AuditRegisterEvents() {
+    }
+
+    @Name("com.financial.recon.AuditRegisterRequest")
+    @Label("Audit Register Request")
+    @Description("One call to AuditRegisterService.process (a whole request, or one streamed chunk)")
+    @Category({CATEGORY, "Audit Register"})
+    @StackTrace(false)
+    static class Request extends Event {
+
+        @Label("Client Request Identifier")
+        String clientRequestId;
+
+        @Label("Transactions")
+        int transactionCount;
+
+        @Label("Entries")
+        int entryCount;
+
+        @Label("Succeeded")
+        int successCount;
+
+        @Label("Failed")
+        int failureCount;
+
+        @Label("Duplicates")
+        int duplicateCount;
+
+        @Label("Database Round Trips")
+        long dbRoundTrips;
+    }
+
+    @Name("com.financial.recon.AuditRegisterTransaction")
+    @Label("Audit Register Transaction")
+    @Description("Restart check, entity mapping and summary accumulation of one transaction")
+    @Category({CATEGORY, "Audit Register"})
+    @StackTrace(false)
+    static class Transaction extends Event {
+
+        @Label("Device ID")
+        String deviceId;
+
+        @Label("BE ID")
+        String beId;
+
+        @Label("Business Date")
+        String businessDate;
+
+        @Label("AR Sequence Number")
+        int seqNum;
+
+        @Label("Entries")
+        int entryCount;
+
+        @Label("Device Restarted")
+        boolean deviceRestarted;
+    }
+
+    @Name("com.financial.recon.SummaryUpsert")
+    @Label("Device Summary Upsert")
+    @Description("DEVICE_AR_SUMMARY upsert (or write-behind hand-off) for one chunk")
+    @Category({CATEGORY, "Database"})
+    @StackTrace(false)
+    static class SummaryUpsert extends Event {
+
+        @Label("Summary Keys")
+        int keyCount;
+
+        @Label("Entries")
+        int entryCount;
+
+        @Label("Write-Behind")
+        boolean writeBehind;
+    }
+
+    @Name("com.financial.recon.DeadLetterWrite")
+    @Label("Exception Table Write")
+    @Description("One MIRROR_AR_EX / MIRROR_AR_DETAIL_EX batch written by DeadLetterWriter")
+    @Category({CATEGORY, "Database"})
+    @StackTrace(false)
+    static class DeadLetterWrite extends Event {
+
+        @Label("Transactions")
+        int transactionCount;
+
+        @Label("Entries")
+        int entryCount;
+
+        @Label("Succeeded")
+        boolean success;
+    }
+}
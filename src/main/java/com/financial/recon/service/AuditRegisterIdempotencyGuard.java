@@ -0,0 +1,254 @@
+package com.financial.recon.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.dto.AuditRegisterResponse;
+import com.financial.recon.dto.IdempotencyStats;
+import com.financial.recon.entity.ArRequestIdempotency;
+import com.financial.recon.exception.IdempotencyConflictException;
+import com.financial.recon.repository.ArRequestIdempotencyRepository;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 以 X-Client-Request-Identifier 為鍵的請求冪等控制
+ * 首次處理完成的響應存入 AR_REQUEST_IDEMPOTENCY 並放入有上限的 LRU 快取，
+ * 同一識別碼的重試直接返回保存的響應，不經過寫入流程；
+ * 同一識別碼同時進行中的請求會等待並共用第一個請求的結果。
+ * 只保存 SUCCESS / PARTIAL_SUCCESS，處理失敗的請求重試時會重新處理
+ */
+@Slf4j
+@Component
+public class AuditRegisterIdempotencyGuard {
+
+    private static final String UNKNOWN_CLIENT_REQUEST_ID = "UNKNOWN";
+    private static final Set<String> STORED_RESPONSE_CODES = Set.of("SUCCESS", "PARTIAL_SUCCESS");
+
+    private final ArRequestIdempotencyRepository repository;
+    private final AuditRegisterProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+
+    private final Map<String, StoredResponse> cache;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong tableHits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+
+    public AuditRegisterIdempotencyGuard(ArRequestIdempotencyRepository repository,
+                                         AuditRegisterProperties properties,
+                                         ObjectMapper objectMapper,
+                                         PlatformTransactionManager transactionManager,
+                                         DatabaseConcurrencyLimiter databaseConcurrencyLimiter) {
+        this.repository = repository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        int maxEntries = properties.getIdempotency().getCacheMaxEntries();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return properties.getIdempotency().isEnabled();
+    }
+
+    /**
+     * 以冪等方式執行 processor；沒有客戶端請求識別碼時直接執行
+     * 識別碼已用於內容不同的請求時拋出 IdempotencyConflictException
+     */
+    public AuditRegisterResponse execute(String clientRequestId, AuditRegisterRequest request,
+                                         Supplier<AuditRegisterResponse> processor) {
+        if (!isEnabled() || clientRequestId == null || clientRequestId.isBlank()
+                || UNKNOWN_CLIENT_REQUEST_ID.equals(clientRequestId)) {
+            return processor.get();
+        }
+        String requestHash = hash(request);
+
+        StoredResponse cached;
+        synchronized (cache) {
+            cached = cache.get(clientRequestId);
+        }
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return replay(clientRequestId, cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(clientRequestId, execution);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            log.info("Coalescing in-flight duplicate request. ClientRequestId: {}", clientRequestId);
+            return replay(clientRequestId, await(existing), requestHash);
+        }
+
+        try {
+            StoredResponse stored = loadOrProcess(clientRequestId, requestHash, processor);
+            execution.complete(stored);
+            return replay(clientRequestId, stored, requestHash);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(clientRequestId, execution);
+        }
+    }
+
+    public IdempotencyStats getStats() {
+        int cachedResponses;
+        synchronized (cache) {
+            cachedResponses = cache.size();
+        }
+        return IdempotencyStats.builder()
+                .enabled(isEnabled())
+                .cachedResponses(cachedResponses)
+                .inFlight(inFlight.size())
+                .cacheHits(cacheHits.get())
+                .tableHits(tableHits.get())
+                .coalesced(coalesced.get())
+                .processed(processed.get())
+                .build();
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private StoredResponse loadOrProcess(String clientRequestId, String requestHash,
+                                         Supplier<AuditRegisterResponse> processor) {
+        StoredResponse stored = databaseConcurrencyLimiter.call(() -> repository.findById(clientRequestId))
+                .map(row -> new StoredResponse(row.getRequestHash(), fromJson(row.getResponseBody())))
+                .orElse(null);
+        if (stored != null) {
+            tableHits.incrementAndGet();
+            putAfterCommit(clientRequestId, stored);
+            return stored;
+        }
+
+        AuditRegisterResponse response = processor.get();
+        processed.incrementAndGet();
+        stored = new StoredResponse(requestHash, response);
+        if (STORED_RESPONSE_CODES.contains(response.getResponseCode())) {
+            save(clientRequestId, stored);
+        }
+        return stored;
+    }
+
+    /**
+     * 寫入冪等記錄；其他實例已先寫入同一識別碼時忽略
+     */
+    private void save(String clientRequestId, StoredResponse stored) {
+        try {
+            databaseConcurrencyLimiter.run(() -> transactionTemplate.executeWithoutResult(status -> {
+                repository.saveAndFlush(ArRequestIdempotency.builder()
+                        .clientRequestId(clientRequestId)
+                        .requestHash(stored.getRequestHash())
+                        .responseCode(stored.getResponse().getResponseCode())
+                        .responseBody(toJson(stored.getResponse()))
+                        .createdTime(OffsetDateTime.now())
+                        .build());
+                putAfterCommit(clientRequestId, stored);
+            }));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Idempotency record for ClientRequestId: {} was stored concurrently", clientRequestId);
+        }
+    }
+
+    private void putAfterCommit(String clientRequestId, StoredResponse stored) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(clientRequestId, stored);
+                }
+            });
+        } else {
+            put(clientRequestId, stored);
+        }
+    }
+
+    private void put(String clientRequestId, StoredResponse stored) {
+        synchronized (cache) {
+            cache.put(clientRequestId, stored);
+        }
+    }
+
+    private AuditRegisterResponse replay(String clientRequestId, StoredResponse stored, String requestHash) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException(clientRequestId);
+        }
+        return stored.getResponse();
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> execution) {
+        try {
+            return execution.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String hash(AuditRegisterRequest request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash audit register request", e);
+        }
+    }
+
+    private String toJson(AuditRegisterResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize audit register response", e);
+        }
+    }
+
+    private AuditRegisterResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, AuditRegisterResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored audit register response", e);
+        }
+    }
+
+    @Value
+    private static class StoredResponse {
+        String requestHash;
+        AuditRegisterResponse response;
+    }
+}
@@ -0,0 +1,108 @@
+package com.financial.recon.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 審計註冊處理的 Micrometer 指標，經 /actuator/prometheus 輸出
+ * recon.ar.stage：各處理階段耗時（含直方圖，可在 Prometheus 計算百分位數）；
+ * recon.ar.db.round.trips：每個請求的資料庫往返次數；其餘為交易、條目、重啟、跨日及失敗計數
+ */
+@Component
+public class AuditRegisterMetrics {
+
+    public enum Stage {
+        BINDING("binding"),
+        VALIDATION("validation"),
+        SEQ_NUM_LOAD("seq_num_load"),
+        RESTART_CHECK("restart_check"),
+        SUMMARY_UPDATE("summary_update"),
+        SEQ_TRACKING_SAVE("seq_tracking_save"),
+        MIRROR_INSERT("mirror_insert"),
+        COMMIT("commit");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Counter transactions;
+    private final Counter entries;
+    private final Counter deviceRestarts;
+    private final Counter crossDateTransactions;
+    private final Counter failures;
+    private final DistributionSummary dbRoundTrips;
+
+    public AuditRegisterMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("recon.ar.stage")
+                    .description("Time spent in each audit register processing stage")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        transactions = Counter.builder("recon.ar.transactions")
+                .description("Audit register transactions processed")
+                .register(registry);
+        entries = Counter.builder("recon.ar.entries")
+                .description("Audit register entries processed")
+                .register(registry);
+        deviceRestarts = Counter.builder("recon.ar.device.restarts")
+                .description("Transactions whose AR seqNum went backwards (device restart)")
+                .register(registry);
+        crossDateTransactions = Counter.builder("recon.ar.cross.date.transactions")
+                .description("Transactions uploaded after their business date")
+                .register(registry);
+        failures = Counter.builder("recon.ar.failures")
+                .description("Audit register transactions that failed and went to the exception tables")
+                .register(registry);
+        dbRoundTrips = DistributionSummary.builder("recon.ar.db.round.trips")
+                .description("Database round trips (statement executions, batches, commits) per request")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 記錄從 startNanos（System.nanoTime()）到現在的耗時
+     */
+    public void recordStageSince(Stage stage, long startNanos) {
+        recordStage(stage, System.nanoTime() - startNanos);
+    }
+
+    public void processed(int transactionCount, int entryCount) {
+        transactions.increment(transactionCount);
+        entries.increment(entryCount);
+    }
+
+    public void deviceRestart() {
+        deviceRestarts.increment();
+    }
+
+    public void crossDateTransaction() {
+        crossDateTransactions.increment();
+    }
+
+    public void failures(int count) {
+        if (count > 0) {
+            failures.increment(count);
+        }
+    }
+
+    public void dbRoundTrips(long count) {
+        dbRoundTrips.record(count);
+    }
+}
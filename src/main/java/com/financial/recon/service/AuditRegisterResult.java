@@ -0,0 +1,78 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.AuditRegisterTransaction;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 處理結果統計
+ * 分段提交時每段各自統計，只有提交成功的段才併入總結果。
+ * 失敗及重送的交易以物件識別記錄，供逐筆回報結果的端點查詢
+ */
+@Getter
+class AuditRegisterResult {
+
+    private int successCount;
+    private int failureCount;
+    private int duplicateCount;
+    private int entryCount;
+    private final List<String> errors = new ArrayList<>();
+    private final Map<AuditRegisterTransaction, String> failedTxns = new IdentityHashMap<>();
+    private final Set<AuditRegisterTransaction> duplicateTxns = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    void success() {
+        successCount++;
+    }
+
+    /**
+     * 記錄已累計到摘要的條目數
+     */
+    void entries(int count) {
+        entryCount += count;
+    }
+
+    void duplicate(AuditRegisterTransaction txn) {
+        duplicateCount++;
+        duplicateTxns.add(txn);
+    }
+
+    void failure(String error) {
+        failureCount++;
+        errors.add(error);
+    }
+
+    void failure(AuditRegisterTransaction txn, String error) {
+        failure(error);
+        failedTxns.put(txn, error);
+    }
+
+    /**
+     * 記錄與單筆交易無關的錯誤（例如請求內容格式錯誤），不計入失敗筆數
+     */
+    void error(String error) {
+        errors.add(error);
+    }
+
+    void merge(AuditRegisterResult other) {
+        mergeSummary(other);
+        failedTxns.putAll(other.failedTxns);
+        duplicateTxns.addAll(other.duplicateTxns);
+    }
+
+    /**
+     * 只合併筆數和錯誤訊息，不保留交易物件；串流處理用，避免已處理的交易留在記憶體中
+     */
+    void mergeSummary(AuditRegisterResult other) {
+        successCount += other.successCount;
+        failureCount += other.failureCount;
+        duplicateCount += other.duplicateCount;
+        entryCount += other.entryCount;
+        errors.addAll(other.errors);
+    }
+}
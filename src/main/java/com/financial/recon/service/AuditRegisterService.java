@@ -1,79 +1,104 @@
 package com.financial.recon.service;
 
+import com.financial.recon.config.AuditRegisterProperties;
 import com.financial.recon.dto.AuditRegisterEntry;
 import com.financial.recon.dto.AuditRegisterRequest;
 import com.financial.recon.dto.AuditRegisterResponse;
 import com.financial.recon.dto.AuditRegisterTransaction;
-import com.financial.recon.entity.DeviceAuditRegisterSummary;
+import com.financial.recon.dto.MinorUnits;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryDelta;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryId;
 import com.financial.recon.entity.MirrorAr;
 import com.financial.recon.entity.MirrorArDetail;
-import com.financial.recon.entity.MirrorArDetailEx;
-import com.financial.recon.entity.MirrorArEx;
+import com.financial.recon.exception.DatabaseBusyException;
+import com.financial.recon.repository.DbRoundTripScope;
 import com.financial.recon.repository.DeviceAuditRegisterSummaryRepository;
-import com.financial.recon.repository.MirrorArDetailExRepository;
+import com.financial.recon.repository.DeviceMaxArSeqNum;
 import com.financial.recon.repository.MirrorArDetailRepository;
-import com.financial.recon.repository.MirrorArExRepository;
 import com.financial.recon.repository.MirrorArRepository;
+import com.financial.recon.service.AuditRegisterMetrics.Stage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuditRegisterService {
 
+    /**
+     * Oracle IN 列表最多 1000 個元素
+     */
+    private static final int IN_LIST_LIMIT = 1000;
+
     private final MirrorArRepository mirrorArRepository;
-    private final MirrorArExRepository mirrorArExRepository;
     private final MirrorArDetailRepository mirrorArDetailRepository;
-    private final MirrorArDetailExRepository mirrorArDetailExRepository;
     private final DeviceAuditRegisterSummaryRepository deviceAuditRegisterSummaryRepository;
+    private final SummaryWriteBehindBuffer summaryWriteBehindBuffer;
+    private final DeviceSeqNumCache deviceSeqNumCache;
+    private final DeviceSeqNumTracker deviceSeqNumTracker;
+    private final AuditRegisterProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final WorkerThreadFactory workerThreadFactory;
+    private final ReferenceIdGenerator referenceIdGenerator;
+    private final AuditRegisterEntityMapper entityMapper;
+    private final DeadLetterWriter deadLetterWriter;
+    private final AuditRegisterMetrics metrics;
 
-    @Transactional
-    public AuditRegisterResponse processAuditRegister(AuditRegisterRequest request, String clientRequestId) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-        int failureCount = 0;
+    private ExecutorService shardExecutor;
 
-        try {
-            for (AuditRegisterTransaction txn : request.getAuditRegisterTxns()) {
-                try {
-                    processTransaction(txn, clientRequestId);
-                    successCount++;
-                } catch (Exception e) {
-                    log.error("Error processing transaction for deviceId: {}, seqNum: {}", 
-                            txn.getDeviceId(), txn.getAuditRegisterSeqNum(), e);
-                    errors.add(String.format("Transaction processing failed for deviceId: %s, seqNum: %d - %s",
-                            txn.getDeviceId(), txn.getAuditRegisterSeqNum(), e.getMessage()));
-                    failureCount++;
-                    
-                    // Save to exception tables
-                    saveToExceptionTables(txn, clientRequestId, e.getMessage());
-                }
-            }
+    @PostConstruct
+    void startShardExecutor() {
+        AuditRegisterProperties.Parallel parallel = properties.getParallel();
+        if (!parallel.isEnabled()) {
+            return;
+        }
+        shardExecutor = Executors.newFixedThreadPool(parallel.getWorkerThreads(),
+                workerThreadFactory.named("audit-register-shard-"));
+        log.info("Device-sharded parallel processing enabled. workerThreads: {}, virtual: {}",
+                parallel.getWorkerThreads(), workerThreadFactory.isVirtual());
+    }
 
-            if (errors.isEmpty()) {
-                return AuditRegisterResponse.builder()
-                        .responseCode("SUCCESS")
-                        .responseMessage(String.format("Successfully processed %d transaction(s)", successCount))
-                        .errors(null)
-                        .build();
-            } else {
-                return AuditRegisterResponse.builder()
-                        .responseCode("PARTIAL_SUCCESS")
-                        .responseMessage(String.format("Processed %d success, %d failure(s)", successCount, failureCount))
-                        .errors(errors)
-                        .build();
-            }
+    @PreDestroy
+    void stopShardExecutor() {
+        if (shardExecutor != null) {
+            shardExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 處理審計註冊請求
+     * 預設整個請求在同一個資料庫交易中處理；設定 recon.audit-register.chunk-size 後
+     * 每 N 筆交易在獨立的資料庫交易中處理並提交，某一段失敗只回滾該段，不影響其他段。
+     * 啟用 recon.audit-register.parallel 後按 deviceId 分片並行處理，
+     * 同一設備的交易落在同一分片內並保持原順序，重啟檢測不受影響
+     */
+    public AuditRegisterResponse processAuditRegister(AuditRegisterRequest request, String clientRequestId) {
+        try {
+            return toResponse(process(request.getAuditRegisterTxns(), clientRequestId));
+        } catch (DatabaseBusyException e) {
+            // 交給控制器返回 503，設備稍後重送；已提交的段會被序列號追蹤識別為重送而跳過
+            throw e;
         } catch (Exception e) {
             log.error("Unexpected error processing audit register request", e);
             return AuditRegisterResponse.builder()
@@ -84,17 +109,302 @@ public class AuditRegisterService {
         }
     }
 
-    private void processTransaction(AuditRegisterTransaction txn, String clientRequestId) {
+    /**
+     * 處理一批交易並返回統計；分段提交及分片並行的設定同樣適用
+     * 串流處理時每讀到一段交易就呼叫一次；每次呼叫只讀一次系統時鐘，各段及各分片共用同一快照。
+     * 每次呼叫的資料庫往返次數（含各分片工作執行緒）記入 recon.ar.db.round.trips，並發出一個 JFR 請求事件
+     */
+    AuditRegisterResult process(List<AuditRegisterTransaction> txns, String clientRequestId) {
+        RequestClock clock = RequestClock.snapshot();
+        AuditRegisterEvents.Request event = new AuditRegisterEvents.Request();
+        event.begin();
+        DbRoundTripScope roundTrips = DbRoundTripScope.open();
+        AuditRegisterResult result = null;
+        try {
+            result = processSharded(txns, clientRequestId, clock, roundTrips);
+            metrics.processed(result.getSuccessCount(), result.getEntryCount());
+            metrics.failures(result.getFailureCount());
+            return result;
+        } finally {
+            roundTrips.close();
+            if (properties.getMetrics().isDbRoundTrips()) {
+                metrics.dbRoundTrips(roundTrips.count());
+            }
+            commitRequestEvent(event, clientRequestId, txns, result, roundTrips.count());
+        }
+    }
+
+    /**
+     * result 為 null 表示整批回滾，所有交易記為失敗
+     */
+    private void commitRequestEvent(AuditRegisterEvents.Request event, String clientRequestId,
+                                    List<AuditRegisterTransaction> txns, AuditRegisterResult result,
+                                    long dbRoundTrips) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.clientRequestId = clientRequestId;
+        event.transactionCount = txns.size();
+        event.dbRoundTrips = dbRoundTrips;
+        if (result != null) {
+            event.entryCount = result.getEntryCount();
+            event.successCount = result.getSuccessCount();
+            event.failureCount = result.getFailureCount();
+            event.duplicateCount = result.getDuplicateCount();
+        } else {
+            event.failureCount = txns.size();
+        }
+        event.commit();
+    }
+
+    private AuditRegisterResult processSharded(List<AuditRegisterTransaction> txns, String clientRequestId,
+                                               RequestClock clock, DbRoundTripScope roundTrips) {
+        List<List<AuditRegisterTransaction>> shards = shardByDevice(txns);
+        if (shards.size() <= 1) {
+            try {
+                return processInChunks(txns, clientRequestId, clock);
+            } catch (DatabaseBusyException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // 單一資料庫交易模式下整批回滾，全部交易寫入例外表
+                metrics.failures(txns.size());
+                deadLetterWriter.submit(txns, clock);
+                throw e;
+            }
+        }
+        try {
+            return processShards(shards, clientRequestId, clock, roundTrips);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for device shards", e);
+        }
+    }
+
+    /**
+     * 按 deviceId 雜湊分片；未啟用並行處理時返回單一分片
+     */
+    private List<List<AuditRegisterTransaction>> shardByDevice(List<AuditRegisterTransaction> txns) {
+        if (shardExecutor == null || txns.size() < 2) {
+            return List.of(txns);
+        }
+        int shardCount = properties.getParallel().getWorkerThreads();
+        List<List<AuditRegisterTransaction>> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (AuditRegisterTransaction txn : txns) {
+            shards.get(Math.floorMod(Objects.hashCode(txn.getDeviceId()), shardCount)).add(txn);
+        }
+        shards.removeIf(List::isEmpty);
+        return shards;
+    }
+
+    /**
+     * 各分片在工作執行緒上各自處理（各自的資料庫交易），完成後按分片順序合併結果
+     * 分片之間的設備不重疊，DEVICE_AR_SUMMARY / DEVICE_AR_SEQ_SET 的鎖不會互相等待
+     */
+    private AuditRegisterResult processShards(List<List<AuditRegisterTransaction>> shards, String clientRequestId,
+                                              RequestClock clock, DbRoundTripScope roundTrips)
+            throws InterruptedException {
+        List<Future<AuditRegisterResult>> futures = new ArrayList<>(shards.size());
+        for (List<AuditRegisterTransaction> shard : shards) {
+            futures.add(shardExecutor.submit(
+                    () -> roundTrips.call(() -> processInChunks(shard, clientRequestId, clock))));
+        }
+
+        AuditRegisterResult result = new AuditRegisterResult();
+        DatabaseBusyException busy = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                result.merge(futures.get(i).get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof DatabaseBusyException databaseBusy) {
+                    busy = databaseBusy;
+                    continue;
+                }
+                log.error("Shard of {} transaction(s) rolled back", shards.get(i).size(), e.getCause());
+                handleFailedChunk(shards.get(i), clock, (Exception) e.getCause(), result);
+            }
+        }
+        if (busy != null) {
+            throw busy;
+        }
+        return result;
+    }
+
+    /**
+     * 依 chunk-size 設定，在一個或多個資料庫交易中處理；每個資料庫交易先取得並行許可
+     * 單一資料庫交易模式下的例外及 DatabaseBusyException 直接拋出，由呼叫端決定如何回應
+     */
+    private AuditRegisterResult processInChunks(List<AuditRegisterTransaction> txns, String clientRequestId,
+                                                RequestClock clock) {
+        int chunkSize = properties.getChunkSize();
+        if (chunkSize <= 0 || txns.size() <= chunkSize) {
+            return executeInTransaction(txns, clientRequestId, clock);
+        }
+
+        AuditRegisterResult result = new AuditRegisterResult();
+        for (int from = 0; from < txns.size(); from += chunkSize) {
+            List<AuditRegisterTransaction> chunk = txns.subList(from, Math.min(from + chunkSize, txns.size()));
+            try {
+                result.merge(executeInTransaction(chunk, clientRequestId, clock));
+            } catch (DatabaseBusyException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("Chunk of {} transaction(s) starting at index {} rolled back", chunk.size(), from, e);
+                handleFailedChunk(chunk, clock, e, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 提交耗時為處理完本段到 TransactionTemplate 返回的時間
+     */
+    private AuditRegisterResult executeInTransaction(List<AuditRegisterTransaction> txns, String clientRequestId,
+                                                     RequestClock clock) {
+        return databaseConcurrencyLimiter.call(() -> {
+            long[] bodyEnd = new long[1];
+            AuditRegisterResult result = transactionTemplate.execute(status -> {
+                AuditRegisterResult chunkResult = processChunk(txns, clientRequestId, clock);
+                bodyEnd[0] = System.nanoTime();
+                return chunkResult;
+            });
+            metrics.recordStageSince(Stage.COMMIT, bodyEnd[0]);
+            return result;
+        });
+    }
+
+    /**
+     * 在目前的資料庫交易中處理一段交易
+     */
+    private AuditRegisterResult processChunk(List<AuditRegisterTransaction> txns, String clientRequestId,
+                                             RequestClock clock) {
+        AuditRegisterResult result = new AuditRegisterResult();
+
+        // 本段的 MIRROR_AR / MIRROR_AR_DETAIL 先收集起來，最後按表分組批次寫入；
+        // 摘要增量按主鍵在記憶體中合併，每個不同主鍵只寫一次資料庫
+        Set<DeviceBusinessDateKey> deviceKeys = collectDeviceKeys(txns);
+        long start = System.nanoTime();
+        DeviceSeqNumSnapshot seqNumSnapshot = loadSeqNumSnapshot(deviceKeys);
+        SeqNumTracking seqNumTracking = deviceSeqNumTracker.load(deviceKeys, clock);
+        metrics.recordStageSince(Stage.SEQ_NUM_LOAD, start);
+        AuditRegisterBatchContext context = new AuditRegisterBatchContext(
+                clientRequestId, clock, seqNumSnapshot, seqNumTracking);
+        List<AuditRegisterTransaction> failed = new ArrayList<>();
+
+        for (AuditRegisterTransaction txn : txns) {
+            try {
+                // 已處理過的序列號（設備重送）直接跳過，不再重複累計
+                if (context.getSeqNumTracking().isDuplicate(txn)) {
+                    log.info("Skipping duplicate transaction for deviceId: {}, businessDate: {}, seqNum: {}",
+                            txn.getDeviceId(), txn.getBusinessDate(), txn.getAuditRegisterSeqNum());
+                    result.duplicate(txn);
+                    continue;
+                }
+                processTransaction(txn, context);
+                result.success();
+            } catch (Exception e) {
+                log.error("Error processing transaction for deviceId: {}, seqNum: {}", 
+                        txn.getDeviceId(), txn.getAuditRegisterSeqNum(), e);
+                result.failure(txn, String.format("Transaction processing failed for deviceId: %s, seqNum: %d - %s",
+                        txn.getDeviceId(), txn.getAuditRegisterSeqNum(), e.getMessage()));
+                failed.add(txn);
+            }
+        }
+
+        // 失敗的交易在本段提交後才寫入例外表；本段回滾時改由呼叫端整段寫入
+        deadLetterWriter.submit(failed, clock);
+
+        start = System.nanoTime();
+        updateDeviceAuditRegisterSummaries(context.getSummaryAggregator(), clock);
+        metrics.recordStageSince(Stage.SUMMARY_UPDATE, start);
+        start = System.nanoTime();
+        deviceSeqNumTracker.save(context.getSeqNumTracking(), clock);
+        metrics.recordStageSince(Stage.SEQ_TRACKING_SAVE, start);
+        start = System.nanoTime();
+        saveMirrorRows(context.getMirrorArs(), context.getMirrorArDetails());
+        metrics.recordStageSince(Stage.MIRROR_INSERT, start);
+        if (deviceSeqNumCache.isEnabled()) {
+            deviceSeqNumCache.updateAfterCommit(context.getSeqNumSnapshot().recorded());
+        }
+        result.entries(context.getSummaryAggregator().entryCount());
+        return result;
+    }
+
+    /**
+     * 與 process 相同，但整批回滾時不拋出：每筆交易記為失敗（已由 processSharded 寫入例外表）
+     * 供串流及 NDJSON 端點逐段呼叫，某一段失敗不影響之前已提交的段及其統計；DatabaseBusyException 照常拋出
+     */
+    AuditRegisterResult processOrFail(List<AuditRegisterTransaction> txns, String clientRequestId) {
+        try {
+            return process(txns, clientRequestId);
+        } catch (DatabaseBusyException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Chunk of {} transaction(s) rolled back", txns.size(), e);
+            AuditRegisterResult result = new AuditRegisterResult();
+            markChunkFailed(txns, e, result);
+            return result;
+        }
+    }
+
+    /**
+     * 整段回滾時，段內每筆交易都記為失敗，並交由 DeadLetterWriter 寫入例外表
+     */
+    private void handleFailedChunk(List<AuditRegisterTransaction> chunk, RequestClock clock,
+                                   Exception cause, AuditRegisterResult result) {
+        markChunkFailed(chunk, cause, result);
+        deadLetterWriter.submit(chunk, clock);
+    }
+
+    private static void markChunkFailed(List<AuditRegisterTransaction> chunk, Exception cause,
+                                        AuditRegisterResult result) {
+        String message = cause.getMessage();
+        for (AuditRegisterTransaction txn : chunk) {
+            result.failure(txn, String.format("Chunk processing failed for deviceId: %s, seqNum: %d - %s",
+                    txn.getDeviceId(), txn.getAuditRegisterSeqNum(), message));
+        }
+    }
+
+    AuditRegisterResponse toResponse(AuditRegisterResult result) {
+        String duplicateNote = result.getDuplicateCount() > 0
+                ? String.format(", skipped %d duplicate(s)", result.getDuplicateCount()) : "";
+        if (result.getErrors().isEmpty()) {
+            return AuditRegisterResponse.builder()
+                    .responseCode("SUCCESS")
+                    .responseMessage(String.format("Successfully processed %d transaction(s)", result.getSuccessCount())
+                            + duplicateNote)
+                    .errors(null)
+                    .build();
+        }
+        return AuditRegisterResponse.builder()
+                .responseCode("PARTIAL_SUCCESS")
+                .responseMessage(String.format("Processed %d success, %d failure(s)",
+                        result.getSuccessCount(), result.getFailureCount()) + duplicateNote)
+                .errors(result.getErrors())
+                .build();
+    }
+
+    private void processTransaction(AuditRegisterTransaction txn, AuditRegisterBatchContext context) {
+        AuditRegisterEvents.Transaction event = new AuditRegisterEvents.Transaction();
+        event.begin();
         String referenceId = generateReferenceId();
-        String refRecordId = "001"; // Default value, can be configured
+        RequestClock clock = context.getClock();
         
         // Check for cross-date scenario (outstanding transactions from previous day)
-        checkAndLogCrossDateScenario(txn);
+        checkAndLogCrossDateScenario(txn, clock.today());
         
         // Check if device was restarted (count reset)
-        boolean deviceRestarted = checkDeviceRestart(txn);
+        DeviceBusinessDateKey deviceKey = new DeviceBusinessDateKey(
+                txn.getDeviceId(), txn.getBeId(), txn.getBusinessDate());
+        long start = System.nanoTime();
+        boolean deviceRestarted = checkDeviceRestart(txn, deviceKey, context.getSeqNumSnapshot());
+        metrics.recordStageSince(Stage.RESTART_CHECK, start);
         
         if (deviceRestarted) {
+            metrics.deviceRestart();
             log.warn("Device restart detected for deviceId: {}, beId: {}, businessDate: {}. " +
                     "Current AR seqNum: {}, Previous max seqNum exists. " +
                     "Will use accumulated counts from database.",
@@ -102,36 +412,67 @@ public class AuditRegisterService {
                     txn.getAuditRegisterSeqNum());
         }
         
-        // Process and update device audit register summary for reconciliation
-        // Note: Summary is tracked by businessDate, so outstanding transactions from 10-Dec
-        // will be correctly accumulated to 10-Dec summary even if sent on 11-Dec
-        updateDeviceAuditRegisterSummary(txn, deviceRestarted);
-        
         // Create MirrorAr entity
-        MirrorAr mirrorAr = buildMirrorAr(txn, referenceId, refRecordId, clientRequestId);
-        mirrorArRepository.save(mirrorAr);
+        MirrorAr mirrorAr = entityMapper.toMirrorAr(txn, referenceId, clock);
 
         // Create MirrorArDetail entities
+        List<MirrorArDetail> details = new ArrayList<>(txn.getAuditRegisterEntries().size());
         int entryIndex = 1;
         for (AuditRegisterEntry entry : txn.getAuditRegisterEntries()) {
-            MirrorArDetail detail = buildMirrorArDetail(txn, entry, referenceId, refRecordId, entryIndex);
-            mirrorArDetailRepository.save(detail);
+            details.add(entityMapper.toMirrorArDetail(entry, referenceId, entryIndex, clock));
             entryIndex++;
         }
+
+        // Accumulate device audit register summary for reconciliation
+        // Note: Summary is tracked by businessDate, so outstanding transactions from 10-Dec
+        // will be correctly accumulated to 10-Dec summary even if sent on 11-Dec
+        // The aggregator leaves its deltas untouched if any entry overflows, so it runs before rows are queued
+        context.getSummaryAggregator().add(txn);
+
+        // Only queue rows once the whole transaction has been built and summed
+        context.getMirrorArs().add(mirrorAr);
+        context.getMirrorArDetails().addAll(details);
+        context.getSeqNumSnapshot().record(deviceKey, txn.getAuditRegisterSeqNum());
+        context.getSeqNumTracking().record(txn);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.deviceId = txn.getDeviceId();
+            event.beId = String.valueOf(txn.getBeId());
+            event.businessDate = String.valueOf(txn.getBusinessDate());
+            event.seqNum = txn.getAuditRegisterSeqNum();
+            event.entryCount = details.size();
+            event.deviceRestarted = deviceRestarted;
+            event.commit();
+        }
+    }
+
+    /**
+     * 批次寫入 MIRROR_AR 及 MIRROR_AR_DETAIL
+     * 先寫所有表頭再寫所有明細，讓同一張表的 INSERT 連續出現，
+     * Hibernate 即可按 hibernate.jdbc.batch_size（recon.audit-register.batch-size）組成 JDBC 批次
+     */
+    private void saveMirrorRows(List<MirrorAr> mirrorArs, List<MirrorArDetail> mirrorArDetails) {
+        if (mirrorArs.isEmpty()) {
+            return;
+        }
+        mirrorArRepository.saveAll(mirrorArs);
+        mirrorArDetailRepository.saveAll(mirrorArDetails);
+        mirrorArDetailRepository.flush();
     }
     
     /**
      * 檢查並記錄跨日期場景（前一天的未完成交易）
      * 例如：10-Dec 的交易在 11-Dec 發送
      */
-    private void checkAndLogCrossDateScenario(AuditRegisterTransaction txn) {
+    private void checkAndLogCrossDateScenario(AuditRegisterTransaction txn, LocalDate currentDate) {
         LocalDate businessDate = txn.getBusinessDate();
-        LocalDate currentDate = LocalDate.now();
         OffsetDateTime transactionDateTime = txn.getTransactionDateTime();
         
         // 如果業務日期不是今天，可能是跨日期的未完成交易
         if (!businessDate.equals(currentDate)) {
             if (businessDate.isBefore(currentDate)) {
+                metrics.crossDateTransaction();
                 log.info("Processing outstanding transactions from previous business date. " +
                         "DeviceId: {}, BusinessDate: {}, TransactionDateTime: {}, CurrentDate: {}. " +
                         "This may be outstanding transactions that were not uploaded before device shutdown.",
@@ -157,21 +498,72 @@ public class AuditRegisterService {
         }
     }
     
+    /**
+     * 請求中所有不同的 (deviceId, beId, businessDate) 組合
+     */
+    private Set<DeviceBusinessDateKey> collectDeviceKeys(List<AuditRegisterTransaction> txns) {
+        Set<DeviceBusinessDateKey> keys = new HashSet<>();
+        for (AuditRegisterTransaction txn : txns) {
+            if (txn.getDeviceId() != null && txn.getBeId() != null && txn.getBusinessDate() != null) {
+                keys.add(new DeviceBusinessDateKey(txn.getDeviceId(), txn.getBeId(), txn.getBusinessDate()));
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * 批量預取請求中所有 (deviceId, beId, businessDate) 組合的最大AR序列號
+     * 啟用快取時只查詢未命中的組合；查詢次數與交易數無關
+     */
+    private DeviceSeqNumSnapshot loadSeqNumSnapshot(Set<DeviceBusinessDateKey> keys) {
+        if (keys.isEmpty()) {
+            return new DeviceSeqNumSnapshot(Map.of());
+        }
+        if (deviceSeqNumCache.isEnabled()) {
+            return new DeviceSeqNumSnapshot(deviceSeqNumCache.getAll(keys, this::queryMaxSeqNums));
+        }
+        return new DeviceSeqNumSnapshot(queryMaxSeqNums(keys));
+    }
+    
+    /**
+     * 按設備ID分段做 IN 查詢，載入指定組合的最大AR序列號
+     */
+    private Map<DeviceBusinessDateKey, Integer> queryMaxSeqNums(Set<DeviceBusinessDateKey> keys) {
+        List<String> deviceIds = keys.stream().map(DeviceBusinessDateKey::getDeviceId).distinct().toList();
+        Set<LocalDate> businessDates = keys.stream().map(DeviceBusinessDateKey::getBusinessDate)
+                .collect(Collectors.toSet());
+        
+        Map<DeviceBusinessDateKey, Integer> loaded = new HashMap<>();
+        for (int from = 0; from < deviceIds.size(); from += IN_LIST_LIMIT) {
+            List<String> chunk = deviceIds.subList(from, Math.min(from + IN_LIST_LIMIT, deviceIds.size()));
+            for (DeviceMaxArSeqNum row : deviceAuditRegisterSummaryRepository
+                    .findMaxArSeqNumsByDevicesAndDates(chunk, businessDates)) {
+                DeviceBusinessDateKey key = new DeviceBusinessDateKey(
+                        row.getDeviceId(), row.getBeId(), row.getBusinessDate());
+                if (row.getMaxArSeqNum() != null && keys.contains(key)) {
+                    loaded.put(key, row.getMaxArSeqNum());
+                }
+            }
+        }
+        return loaded;
+    }
+    
     /**
      * 檢查設備是否重啟（計數重置）
      * 如果當前的 auditRegisterSeqNum 小於之前記錄的最大值，說明設備重啟了
+     * 比較對象為請求開始時預取的快照（含本請求已處理的交易）及延遲寫入緩衝中的增量
      */
-    private boolean checkDeviceRestart(AuditRegisterTransaction txn) {
-        Optional<Integer> maxSeqNum = deviceAuditRegisterSummaryRepository
-                .findMaxArSeqNumByDeviceAndDate(
-                        txn.getDeviceId(), 
-                        txn.getBeId(), 
-                        txn.getBusinessDate());
+    private boolean checkDeviceRestart(AuditRegisterTransaction txn, DeviceBusinessDateKey deviceKey,
+                                       DeviceSeqNumSnapshot seqNumSnapshot) {
+        Optional<Integer> maxSeqNum = seqNumSnapshot.maxSeqNum(deviceKey);
+        Optional<Integer> bufferedMaxSeqNum = summaryWriteBehindBuffer.isEnabled()
+                ? summaryWriteBehindBuffer.pendingMaxSeqNum(txn.getDeviceId(), txn.getBeId(), txn.getBusinessDate())
+                : Optional.empty();
         
         if (maxSeqNum.isPresent() && txn.getAuditRegisterSeqNum() < maxSeqNum.get()) {
             return true;
         }
-        return false;
+        return bufferedMaxSeqNum.isPresent() && txn.getAuditRegisterSeqNum() < bufferedMaxSeqNum.get();
     }
     
     /**
@@ -179,238 +571,52 @@ public class AuditRegisterService {
      * 處理設備重啟後計數重置的情況，確保累計計數正確
      * 重要：摘要按業務日期（businessDate）分組，因此跨日期發送的未完成交易
      * （例如 10-Dec 的交易在 11-Dec 發送）會正確累計到對應的業務日期
+     * 增量已按主鍵聚合，累加在資料庫內以 MERGE 原子完成，每個不同主鍵只寫一次
      */
-    private void updateDeviceAuditRegisterSummary(AuditRegisterTransaction txn, boolean deviceRestarted) {
-        LocalDate businessDate = txn.getBusinessDate();
-        OffsetDateTime now = OffsetDateTime.now();
-        LocalDate currentDate = LocalDate.now();
-        boolean isCrossDate = !businessDate.equals(currentDate);
+    private void updateDeviceAuditRegisterSummaries(DeviceSummaryAggregator summaryAggregator, RequestClock clock) {
+        if (summaryAggregator.isEmpty()) {
+            return;
+        }
+        LocalDate currentDate = clock.today();
         
-        for (AuditRegisterEntry entry : txn.getAuditRegisterEntries()) {
-            String cardMediaTypeId = entry.getCardMediaTypeId() != null ? 
-                    entry.getCardMediaTypeId() : "";
-            
-            // 查詢現有的摘要記錄（按業務日期查詢，確保跨日期交易正確累計）
-            Optional<DeviceAuditRegisterSummary> existingSummary = 
-                    deviceAuditRegisterSummaryRepository.findByDeviceIdAndBeIdAndBusinessDateAndArTypeIdentifierAndCardMediaTypeId(
-                            txn.getDeviceId(), 
-                            txn.getBeId(), 
-                            businessDate,  // 使用業務日期，不是當前日期
-                            entry.getArTypeIdentifier(), 
-                            cardMediaTypeId);
-            
-            DeviceAuditRegisterSummary summary;
-            
-            if (existingSummary.isPresent()) {
-                // 更新現有記錄
-                summary = existingSummary.get();
-                
-                Long currentCount = entry.getCount() != null ? entry.getCount().longValue() : 0L;
-                BigDecimal currentValue = entry.getValue() != null ? 
-                        BigDecimal.valueOf(entry.getValue()) : BigDecimal.ZERO;
-                
-                // 累計計數和金額
-                // 注意：即使設備重啟或跨日期發送，累計邏輯相同
-                // 因為我們按業務日期分組，所以會正確累計到對應的業務日期
-                Long previousCount = summary.getTotalCount();
-                BigDecimal previousValue = summary.getTotalValue() != null ? 
-                        summary.getTotalValue() : BigDecimal.ZERO;
-                
-                Long newTotalCount = previousCount + currentCount;
-                BigDecimal newTotalValue = previousValue.add(currentValue);
-                
-                summary.setTotalCount(newTotalCount);
-                summary.setTotalValue(newTotalValue);
-                summary.setLastArSeqNum(txn.getAuditRegisterSeqNum());
-                summary.setLastUpdatedTime(now);
-                
-                if (isCrossDate) {
-                    log.info("Updating cross-date summary for deviceId: {}, businessDate: {}, currentDate: {}. " +
-                            "arType: {}, cardMediaType: {}. " +
-                            "Previous total: count={}, value={}. Current: count={}, value={}. " +
-                            "New total: count={}, value={}",
-                            txn.getDeviceId(), businessDate, currentDate,
-                            entry.getArTypeIdentifier(), cardMediaTypeId,
-                            previousCount, previousValue,
-                            currentCount, currentValue,
-                            newTotalCount, newTotalValue);
-                } else {
-                    log.debug("Updated summary for deviceId: {}, arType: {}, cardMediaType: {}. " +
-                            "Previous total: count={}, value={}. Current: count={}, value={}. " +
-                            "New total: count={}, value={}",
-                            txn.getDeviceId(), entry.getArTypeIdentifier(), cardMediaTypeId,
-                            previousCount, previousValue,
-                            currentCount, currentValue,
-                            newTotalCount, newTotalValue);
-                }
+        for (DeviceAuditRegisterSummaryDelta delta : summaryAggregator.deltas()) {
+            DeviceAuditRegisterSummaryId id = delta.getId();
+            if (!id.getBusinessDate().equals(currentDate)) {
+                log.info("Accumulating cross-date summary for deviceId: {}, businessDate: {}, currentDate: {}. " +
+                        "arType: {}, cardMediaType: {}. Delta: count={}, value={}",
+                        id.getDeviceId(), id.getBusinessDate(), currentDate,
+                        id.getArTypeIdentifier(), id.getCardMediaTypeId(),
+                        delta.getCountDelta(), MinorUnits.toDecimal(delta.getValueDeltaMinor()));
             } else {
-                // 創建新記錄
-                Long initialCount = entry.getCount() != null ? entry.getCount().longValue() : 0L;
-                BigDecimal initialValue = entry.getValue() != null ? 
-                        BigDecimal.valueOf(entry.getValue()) : BigDecimal.ZERO;
-                
-                summary = DeviceAuditRegisterSummary.builder()
-                        .deviceId(txn.getDeviceId())
-                        .beId(txn.getBeId())
-                        .businessDate(businessDate)  // 使用業務日期，確保跨日期交易正確分組
-                        .arTypeIdentifier(entry.getArTypeIdentifier())
-                        .cardMediaTypeId(cardMediaTypeId)
-                        .totalCount(initialCount)
-                        .totalValue(initialValue)
-                        .lastArSeqNum(txn.getAuditRegisterSeqNum())
-                        .lastUpdatedTime(now)
-                        .createdTime(now)
-                        .build();
-                
-                if (isCrossDate) {
-                    log.info("Creating cross-date summary for deviceId: {}, businessDate: {}, currentDate: {}. " +
-                            "arType: {}, cardMediaType: {}. " +
-                            "Initial: count={}, value={}",
-                            txn.getDeviceId(), businessDate, currentDate,
-                            entry.getArTypeIdentifier(), cardMediaTypeId,
-                            initialCount, initialValue);
-                } else {
-                    log.debug("Created new summary for deviceId: {}, arType: {}, cardMediaType: {}. " +
-                            "Initial: count={}, value={}",
-                            txn.getDeviceId(), entry.getArTypeIdentifier(), cardMediaTypeId,
-                            initialCount, initialValue);
-                }
+                log.debug("Accumulating summary for deviceId: {}, arType: {}, cardMediaType: {}. " +
+                        "Delta: count={}, value={}",
+                        id.getDeviceId(), id.getArTypeIdentifier(), id.getCardMediaTypeId(),
+                        delta.getCountDelta(), MinorUnits.toDecimal(delta.getValueDeltaMinor()));
             }
-            
-            deviceAuditRegisterSummaryRepository.save(summary);
         }
-    }
-
-    private MirrorAr buildMirrorAr(AuditRegisterTransaction txn, String referenceId, 
-                                   String refRecordId, String clientRequestId) {
-        OffsetDateTime now = OffsetDateTime.now();
         
-        return MirrorAr.builder()
-                .referenceId(referenceId)
-                .refRecordId(refRecordId)
-                .refTotalCount(txn.getAuditRegisterEntries().size())
-                .txnType(extractTxnType(txn.getTransactionType()))
-                .txnSubtype(extractTxnSubtype(txn.getTransactionType()))
-                .endTxnTime(txn.getTransactionDateTime())
-                .udsn(generateUdsn(txn))
-                .deviceId(txn.getDeviceId())
-                .hardwareType(txn.getDeviceTypeId())
-                .serviceMode(txn.getDeviceSpecialMode())
-                .beId(txn.getBeId())
-                .auditRegisterSeqNum(txn.getAuditRegisterSeqNum())
-                .businessDate(txn.getBusinessDate() != null ? 
-                        txn.getBusinessDate().atStartOfDay().atOffset(OffsetDateTime.now().getOffset()) : null)
-                .settlementDate(now) // Set to current time, can be configured based on business rules
-                .receivedTime(now)
-                .lastUpdatedTime(now)
-                .physicalDeviceId(txn.getEquipmentId())
-                .build();
-    }
-
-    private MirrorArDetail buildMirrorArDetail(AuditRegisterTransaction txn, AuditRegisterEntry entry,
-                                              String referenceId, String refRecordId, int entryIndex) {
-        OffsetDateTime now = OffsetDateTime.now();
-        String arEntryId = String.format("%03d", entryIndex);
-        
-        return MirrorArDetail.builder()
-                .referenceId(referenceId)
-                .refRecordId(refRecordId)
-                .arEntryId(arEntryId)
-                .arId(entry.getArTypeIdentifier())
-                .idType(parseIdType(entry.getCardMediaTypeId()))
-                .count(entry.getCount() != null ? entry.getCount().longValue() : null)
-                .value(entry.getValue() != null ? BigDecimal.valueOf(entry.getValue()) : null)
-                .lastUpdatedTime(now)
-                .build();
-    }
-
-    private void saveToExceptionTables(AuditRegisterTransaction txn, String clientRequestId, String errorMessage) {
-        try {
-            String referenceId = generateReferenceId();
-            String refRecordId = "001";
-            OffsetDateTime now = OffsetDateTime.now();
-
-            // Save to MIRROR_AR_EX
-            MirrorArEx mirrorArEx = MirrorArEx.builder()
-                    .referenceId(referenceId)
-                    .refRecordId(refRecordId)
-                    .refTotalCount(txn.getAuditRegisterEntries().size())
-                    .txnType(extractTxnType(txn.getTransactionType()))
-                    .txnSubtype(extractTxnSubtype(txn.getTransactionType()))
-                    .endTxnTime(txn.getTransactionDateTime())
-                    .udsn(generateUdsn(txn))
-                    .deviceId(txn.getDeviceId())
-                    .hardwareType(txn.getDeviceTypeId())
-                    .serviceMode(txn.getDeviceSpecialMode())
-                    .beId(txn.getBeId())
-                    .auditRegisterSeqNum(txn.getAuditRegisterSeqNum())
-                    .businessDate(txn.getBusinessDate() != null ? 
-                            txn.getBusinessDate().atStartOfDay().atOffset(OffsetDateTime.now().getOffset()) : null)
-                    .settlementDate(now)
-                    .receivedTime(now)
-                    .lastUpdatedTime(now)
-                    .physicalDeviceId(txn.getEquipmentId())
-                    .build();
-            mirrorArExRepository.save(mirrorArEx);
-
-            // Save to MIRROR_AR_DETAIL_EX
-            int entryIndex = 1;
-            for (AuditRegisterEntry entry : txn.getAuditRegisterEntries()) {
-                MirrorArDetailEx detailEx = MirrorArDetailEx.builder()
-                        .referenceId(referenceId)
-                        .refRecordId(refRecordId)
-                        .arEntryId(String.format("%03d", entryIndex))
-                        .arId(entry.getArTypeIdentifier())
-                        .idType(entry.getCardMediaTypeId())
-                        .count(entry.getCount() != null ? entry.getCount().longValue() : null)
-                        .value(entry.getValue() != null ? BigDecimal.valueOf(entry.getValue()) : null)
-                        .lastUpdatedTime(now)
-                        .build();
-                mirrorArDetailExRepository.save(detailEx);
-                entryIndex++;
-            }
-        } catch (Exception e) {
-            log.error("Failed to save to exception tables", e);
-        }
-    }
-
-    private String generateReferenceId() {
-        return UUID.randomUUID().toString().replace("-", "").substring(0, 32).toUpperCase();
-    }
-
-    private String generateUdsn(AuditRegisterTransaction txn) {
-        // Generate UDSN based on device and sequence number
-        return String.format("%s-%d-%d", txn.getDeviceId(), txn.getAuditRegisterSeqNum(), 
-                System.currentTimeMillis());
-    }
-
-    private String extractTxnType(String transactionType) {
-        // Extract transaction type (first 3 characters or default)
-        if (transactionType != null && transactionType.length() >= 3) {
-            return transactionType.substring(0, 3);
+        AuditRegisterEvents.SummaryUpsert event = new AuditRegisterEvents.SummaryUpsert();
+        event.begin();
+        boolean writeBehind = summaryWriteBehindBuffer.isEnabled();
+        if (writeBehind) {
+            // 延遲寫入模式：交易提交後併入全域緩衝，由背景執行緒合併寫出
+            summaryWriteBehindBuffer.addAll(summaryAggregator.deltas());
+        } else {
+            log.debug("Upserting {} summary key(s) aggregated from {} entries",
+                    summaryAggregator.deltas().size(), summaryAggregator.entryCount());
+            deviceAuditRegisterSummaryRepository.upsertAll(summaryAggregator.deltas(), clock.now());
         }
-        return transactionType != null ? transactionType : "UNK";
-    }
 
-    private String extractTxnSubtype(String transactionType) {
-        // Extract transaction subtype (next 3 characters or default)
-        if (transactionType != null && transactionType.length() >= 6) {
-            return transactionType.substring(3, 6);
+        event.end();
+        if (event.shouldCommit()) {
+            event.keyCount = summaryAggregator.deltas().size();
+            event.entryCount = summaryAggregator.entryCount();
+            event.writeBehind = writeBehind;
+            event.commit();
         }
-        return "000";
     }
 
-    private Integer parseIdType(String cardMediaTypeId) {
-        // Parse card media type ID to integer
-        if (cardMediaTypeId == null || cardMediaTypeId.isEmpty()) {
-            return 0;
-        }
-        try {
-            return Integer.parseInt(cardMediaTypeId);
-        } catch (NumberFormatException e) {
-            // If not numeric, return hash code or default
-            return Math.abs(cardMediaTypeId.hashCode() % 1000000);
-        }
+    private String generateReferenceId() {
+        return referenceIdGenerator.nextId();
     }
 }
-
@@ -0,0 +1,283 @@
+package com.financial.recon.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.AuditRegisterResponse;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.dto.BulkIngestResponse;
+import com.financial.recon.dto.BulkLineIssue;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 串流處理審計註冊請求
+ * 以 token 層級逐筆讀取 auditRegisterTxns 陣列，每筆交易讀出後立即驗證，
+ * 累積到 streaming.chunk-size 筆就交給 AuditRegisterService 處理並提交，
+ * 記憶體用量只和一段的大小有關，與請求總大小無關。
+ * 單筆交易的欄位錯誤或某一段回滾只影響該筆或該段，其餘交易照常處理；只有語法錯誤會停止讀取。
+ * 同時處理 NDJSON 格式的批量上傳（每行一筆交易）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditRegisterStreamProcessor {
+
+    private static final String TXNS_FIELD = "auditRegisterTxns";
+    private static final String STATUS_INVALID = "INVALID";
+    private static final String STATUS_FAILED = "FAILED";
+    private static final int MAX_REPORTED_ISSUES = 1000;
+
+    private final AuditRegisterService auditRegisterService;
+    private final AuditRegisterProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public AuditRegisterResponse processStream(InputStream body, String clientRequestId) throws IOException {
+        AuditRegisterResult result = new AuditRegisterResult();
+        List<AuditRegisterTransaction> chunk = new ArrayList<>();
+        int txnCount = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return validationError("Request body must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!TXNS_FIELD.equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                JsonStreamContext txnsContext = parser.getParsingContext();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    String pathPrefix = TXNS_FIELD + "[" + txnCount++ + "]";
+                    AuditRegisterTransaction txn;
+                    try {
+                        txn = objectMapper.readValue(parser, AuditRegisterTransaction.class);
+                    } catch (JsonMappingException e) {
+                        // 單筆交易的欄位型別或格式錯誤：跳過該筆交易的其餘內容，記為失敗後繼續讀取
+                        skipToEndOfElement(parser, txnsContext);
+                        result.failure(pathPrefix + describePath(e) + ": " + e.getOriginalMessage());
+                        continue;
+                    }
+                    String violations = validate(txn, pathPrefix + ".");
+                    if (violations != null) {
+                        result.failure(violations);
+                        continue;
+                    }
+                    chunk.add(txn);
+                    if (chunk.size() >= properties.getStreaming().getChunkSize()) {
+                        result.mergeSummary(auditRegisterService.processOrFail(chunk, clientRequestId));
+                        chunk = new ArrayList<>();
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // 語法錯誤或內容截斷，無法再定位下一筆交易，停止讀取
+            log.warn("Malformed streamed request body after {} transaction(s): {}", txnCount, e.getOriginalMessage());
+            JsonLocation location = e.getLocation();
+            result.error("Malformed request body"
+                    + (location != null ? " at line " + location.getLineNr() + ", column " + location.getColumnNr() : "")
+                    + ": " + e.getOriginalMessage());
+        }
+
+        if (!chunk.isEmpty()) {
+            result.mergeSummary(auditRegisterService.processOrFail(chunk, clientRequestId));
+        }
+        if (txnCount == 0) {
+            return result.getErrors().isEmpty()
+                    ? validationError("auditRegisterTxns: auditRegisterTxns cannot be empty")
+                    : validationError(result.getErrors().get(0));
+        }
+        return auditRegisterService.toResponse(result);
+    }
+
+    /**
+     * 讀取失敗後前進到該筆交易的結尾，讓下一次 nextToken 讀到下一筆交易（或陣列結尾）
+     */
+    private static void skipToEndOfElement(JsonParser parser, JsonStreamContext txnsContext) throws IOException {
+        while (parser.getParsingContext() != txnsContext) {
+            if (parser.nextToken() == null) {
+                throw new JsonParseException(parser, "Unexpected end-of-input in auditRegisterTxns");
+            }
+        }
+    }
+
+    /**
+     * 出錯欄位在交易內的路徑，例如 .auditRegisterEntries[0].value
+     */
+    private static String describePath(JsonMappingException e) {
+        StringBuilder path = new StringBuilder();
+        for (JsonMappingException.Reference reference : e.getPath()) {
+            if (reference.getFieldName() != null) {
+                path.append('.').append(reference.getFieldName());
+            } else if (reference.getIndex() >= 0) {
+                path.append('[').append(reference.getIndex()).append(']');
+            }
+        }
+        return path.toString();
+    }
+
+    /**
+     * 處理 NDJSON（每行一筆 AuditRegisterTransaction）批量上傳
+     * 逐行解析及驗證，某一行格式錯誤只影響該行；有效交易每 streaming.chunk-size 筆處理並提交一次
+     */
+    public BulkIngestResponse processNdjson(InputStream body, String clientRequestId) throws IOException {
+        BulkTally tally = new BulkTally();
+        List<AuditRegisterTransaction> chunk = new ArrayList<>();
+        List<Long> chunkLines = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long lineNr = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNr++;
+            if (line.isBlank()) {
+                continue;
+            }
+            tally.totalLines++;
+
+            AuditRegisterTransaction txn;
+            try {
+                txn = objectMapper.readValue(line, AuditRegisterTransaction.class);
+            } catch (JsonProcessingException e) {
+                tally.invalid++;
+                tally.issue(lineNr, STATUS_INVALID, null, e.getOriginalMessage());
+                continue;
+            }
+            String violations = validate(txn, "");
+            if (violations != null) {
+                tally.invalid++;
+                tally.issue(lineNr, STATUS_INVALID, txn, violations);
+                continue;
+            }
+
+            chunk.add(txn);
+            chunkLines.add(lineNr);
+            if (chunk.size() >= properties.getStreaming().getChunkSize()) {
+                processBulkChunk(chunk, chunkLines, clientRequestId, tally);
+                chunk = new ArrayList<>();
+                chunkLines = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processBulkChunk(chunk, chunkLines, clientRequestId, tally);
+        }
+        return tally.toResponse();
+    }
+
+    /**
+     * 處理一段有效交易並按行記入統計；整段回滾時段內每一行都記為 FAILED，之後的段照常處理
+     */
+    private void processBulkChunk(List<AuditRegisterTransaction> chunk, List<Long> chunkLines,
+                                  String clientRequestId, BulkTally tally) {
+        AuditRegisterResult result = auditRegisterService.processOrFail(chunk, clientRequestId);
+        for (int i = 0; i < chunk.size(); i++) {
+            AuditRegisterTransaction txn = chunk.get(i);
+            String error = result.getFailedTxns().get(txn);
+            if (error != null) {
+                tally.failed++;
+                tally.issue(chunkLines.get(i), STATUS_FAILED, txn, error);
+            } else if (result.getDuplicateTxns().contains(txn)) {
+                tally.duplicates++;
+            } else {
+                tally.accepted++;
+            }
+        }
+    }
+
+    /**
+     * 驗證單筆交易，錯誤訊息格式與 @Valid 驗證一致（auditRegisterTxns[i].field: message）
+     */
+    private String validate(AuditRegisterTransaction txn, String pathPrefix) {
+        Set<ConstraintViolation<AuditRegisterTransaction>> violations = validator.validate(txn);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        List<String> messages = violations.stream()
+                .map(v -> pathPrefix + v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .toList();
+        return String.join("; ", messages);
+    }
+
+    private AuditRegisterResponse validationError(String error) {
+        return AuditRegisterResponse.builder()
+                .responseCode("VALIDATION_ERROR")
+                .responseMessage("Request validation failed")
+                .errors(List.of(error))
+                .build();
+    }
+
+    /**
+     * NDJSON 批量上傳的逐行統計；只保留前 MAX_REPORTED_ISSUES 個問題行
+     */
+    private static class BulkTally {
+        private long totalLines;
+        private int accepted;
+        private int duplicates;
+        private int invalid;
+        private int failed;
+        private final List<BulkLineIssue> issues = new ArrayList<>();
+        private boolean issuesTruncated;
+
+        void issue(long lineNr, String status, AuditRegisterTransaction txn, String error) {
+            if (issues.size() >= MAX_REPORTED_ISSUES) {
+                issuesTruncated = true;
+                return;
+            }
+            issues.add(BulkLineIssue.builder()
+                    .line(lineNr)
+                    .status(status)
+                    .deviceId(txn != null ? txn.getDeviceId() : null)
+                    .auditRegisterSeqNum(txn != null ? txn.getAuditRegisterSeqNum() : null)
+                    .error(error)
+                    .build());
+        }
+
+        BulkIngestResponse toResponse() {
+            String responseCode;
+            if (totalLines == 0) {
+                responseCode = "VALIDATION_ERROR";
+            } else if (invalid == 0 && failed == 0) {
+                responseCode = "SUCCESS";
+            } else if (accepted + duplicates > 0) {
+                responseCode = "PARTIAL_SUCCESS";
+            } else {
+                responseCode = failed == 0 ? "VALIDATION_ERROR" : "ERROR";
+            }
+            return BulkIngestResponse.builder()
+                    .responseCode(responseCode)
+                    .responseMessage(String.format(
+                            "Processed %d line(s): %d accepted, %d duplicate(s), %d invalid, %d failed",
+                            totalLines, accepted, duplicates, invalid, failed))
+                    .totalLines(totalLines)
+                    .accepted(accepted)
+                    .duplicates(duplicates)
+                    .invalid(invalid)
+                    .failed(failed)
+                    .issues(issues)
+                    .issuesTruncated(issuesTruncated)
+                    .build();
+        }
+    }
+}
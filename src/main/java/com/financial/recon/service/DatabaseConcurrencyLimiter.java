@@ -0,0 +1,104 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.DbConcurrencyStats;
+import com.financial.recon.exception.DatabaseBusyException;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 資料庫存取並行數限制
+ * 每次資料庫存取（處理請求的資料庫交易、冪等記錄的查詢及寫入、例外表及摘要延遲寫入）先取得許可再向連線池要連線。
+ * 許可數預設為 Hikari 的 maximum-pool-size 減去保留的連線，留給管理端點及健康檢查等不經過此限制的存取，
+ * 取得許可後不會再卡在連線池上等到 connection-timeout。
+ * 使用虛擬執行緒時同時處理的請求數不再受 Tomcat 執行緒數限制，
+ * 多出來的請求在此公平排隊，超過等待時間則拋出 DatabaseBusyException，而不是堆積在連線池上
+ */
+@Slf4j
+@Component
+public class DatabaseConcurrencyLimiter {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * 未設定 max-concurrent 時保留給不經過此限制的存取的連線數
+     */
+    private static final int RESERVED_CONNECTIONS = 1;
+
+    private final WorkerThreadFactory workerThreadFactory;
+    private final int maxConcurrent;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public DatabaseConcurrencyLimiter(DataSource dataSource, AuditRegisterProperties properties,
+                                      WorkerThreadFactory workerThreadFactory) {
+        AuditRegisterProperties.DbConcurrency config = properties.getDbConcurrency();
+        this.workerThreadFactory = workerThreadFactory;
+        this.maxConcurrent = config.getMaxConcurrent() > 0
+                ? config.getMaxConcurrent() : Math.max(1, poolSizeOf(dataSource) - RESERVED_CONNECTIONS);
+        this.acquireTimeout = config.getAcquireTimeout();
+        this.permits = new Semaphore(maxConcurrent, true);
+        log.info("Database concurrency limit: {} (virtual threads: {})", maxConcurrent, workerThreadFactory.isVirtual());
+    }
+
+    /**
+     * 取得許可後執行 work，結束後歸還
+     */
+    public <T> T call(Supplier<T> work) {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new DatabaseBusyException(maxConcurrent, acquireTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a database permit", e);
+        }
+        acquired.incrementAndGet();
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public DbConcurrencyStats getStats() {
+        return DbConcurrencyStats.builder()
+                .virtualThreads(workerThreadFactory.isVirtual())
+                .maxConcurrent(maxConcurrent)
+                .inUse(maxConcurrent - permits.availablePermits())
+                .waiting(permits.getQueueLength())
+                .acquired(acquired.get())
+                .rejected(rejected.get())
+                .build();
+    }
+
+    private static int poolSizeOf(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not determine connection pool size, using {}", DEFAULT_POOL_SIZE, e);
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
@@ -0,0 +1,304 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.AuditRegisterEntry;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.dto.DeadLetterStats;
+import com.financial.recon.entity.MirrorArDetailEx;
+import com.financial.recon.entity.MirrorArEx;
+import com.financial.recon.repository.MirrorArDetailExRepository;
+import com.financial.recon.repository.MirrorArExRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MIRROR_AR_EX / MIRROR_AR_DETAIL_EX 非同步批次寫入（dead-letter）
+ * 處理失敗的交易先轉成例外表實體放入有界佇列，由背景執行緒按批次在獨立的資料庫交易中寫入，
+ * 錯誤路徑不再在請求的資料庫交易內逐筆 INSERT。佇列滿時丟棄並計數；
+ * 整批寫入失敗時逐筆重寫，仍失敗的記錄下次再試，累計 max-attempts 次後記錄日誌並計為 poisoned，不再重試，
+ * 避免單筆無法寫入的記錄卡住之後的所有記錄。應用程式正常關閉時會把佇列中剩餘的記錄全部寫出
+ */
+@Slf4j
+@Component
+public class DeadLetterWriter {
+
+    private final MirrorArExRepository mirrorArExRepository;
+    private final MirrorArDetailExRepository mirrorArDetailExRepository;
+    private final AuditRegisterEntityMapper entityMapper;
+    private final ReferenceIdGenerator referenceIdGenerator;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+    private final AuditRegisterProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<DeadLetter> queue;
+    private final List<DeadLetter> retry = new ArrayList<>();
+    private final AtomicInteger retryDepth = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong poisoned = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+    private final AtomicLong lastBatchNanos = new AtomicLong();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public DeadLetterWriter(MirrorArExRepository mirrorArExRepository,
+                            MirrorArDetailExRepository mirrorArDetailExRepository,
+                            AuditRegisterEntityMapper entityMapper,
+                            ReferenceIdGenerator referenceIdGenerator,
+                            DatabaseConcurrencyLimiter databaseConcurrencyLimiter,
+                            AuditRegisterProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.mirrorArExRepository = mirrorArExRepository;
+        this.mirrorArDetailExRepository = mirrorArDetailExRepository;
+        this.entityMapper = entityMapper;
+        this.referenceIdGenerator = referenceIdGenerator;
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getDeadLetter().getQueueCapacity());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void start() {
+        long intervalMillis = properties.getDeadLetter().getFlushInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dead-letter-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Dead-letter writer started. queueCapacity: {}, batchSize: {}, flushInterval: {}ms",
+                properties.getDeadLetter().getQueueCapacity(), properties.getDeadLetter().getBatchSize(),
+                intervalMillis);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Draining {} dead-letter record(s) before shutdown", queue.size() + retryDepth.get());
+        flushQuietly();
+    }
+
+    /**
+     * 把失敗的交易放入佇列；若當前有資料庫交易，延後到提交後才放入
+     * （該交易回滾時由呼叫端以整段失敗重新提交，避免同一筆交易寫兩次）
+     */
+    public void submit(List<AuditRegisterTransaction> txns, RequestClock clock) {
+        if (txns.isEmpty()) {
+            return;
+        }
+        List<DeadLetter> deadLetters = new ArrayList<>(txns.size());
+        for (AuditRegisterTransaction txn : txns) {
+            deadLetters.add(toDeadLetter(txn, clock));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(deadLetters);
+                }
+            });
+        } else {
+            offer(deadLetters);
+        }
+    }
+
+    /**
+     * 立即寫出佇列中的所有記錄；某一批失敗時逐筆重寫，仍失敗的記錄保留到下次重試
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushScheduled.set(false);
+            int batchSize = Math.max(1, properties.getDeadLetter().getBatchSize());
+            while (true) {
+                List<DeadLetter> batch = new ArrayList<>(batchSize);
+                batch.addAll(retry);
+                retry.clear();
+                retryDepth.set(0);
+                queue.drainTo(batch, batchSize - Math.min(batch.size(), batchSize));
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    writeBatch(batch);
+                } catch (RuntimeException e) {
+                    failedBatchCount.incrementAndGet();
+                    RuntimeException failure = batch.size() == 1 ? retryLater(batch.get(0), e) : writeOneByOne(batch);
+                    if (!retry.isEmpty()) {
+                        retryDepth.set(retry.size());
+                        throw failure;
+                    }
+                }
+            }
+        }
+    }
+
+    public DeadLetterStats getStats() {
+        return DeadLetterStats.builder()
+                .queueDepth(queue.size() + retryDepth.get())
+                .queueCapacity(properties.getDeadLetter().getQueueCapacity())
+                .enqueued(enqueued.get())
+                .dropped(dropped.get())
+                .written(written.get())
+                .batchCount(batchCount.get())
+                .failedBatchCount(failedBatchCount.get())
+                .poisoned(poisoned.get())
+                .lastBatchMillis(TimeUnit.NANOSECONDS.toMillis(lastBatchNanos.get()))
+                .maxBatchMillis(TimeUnit.NANOSECONDS.toMillis(maxBatchNanos.get()))
+                .build();
+    }
+
+    private DeadLetter toDeadLetter(AuditRegisterTransaction txn, RequestClock clock) {
+        String referenceId = referenceIdGenerator.nextId();
+        List<MirrorArDetailEx> details = new ArrayList<>(txn.getAuditRegisterEntries().size());
+        int entryIndex = 1;
+        for (AuditRegisterEntry entry : txn.getAuditRegisterEntries()) {
+            details.add(entityMapper.toMirrorArDetailEx(entry, referenceId, entryIndex, clock));
+            entryIndex++;
+        }
+        return new DeadLetter(entityMapper.toMirrorArEx(txn, referenceId, clock), details);
+    }
+
+    private void offer(List<DeadLetter> deadLetters) {
+        for (DeadLetter deadLetter : deadLetters) {
+            if (queue.offer(deadLetter)) {
+                enqueued.incrementAndGet();
+            } else {
+                dropped.incrementAndGet();
+                MirrorArEx header = deadLetter.getHeader();
+                log.warn("Dead-letter queue full, dropping failed transaction for deviceId: {}, seqNum: {}",
+                        header.getDeviceId(), header.getAuditRegisterSeqNum());
+            }
+        }
+        if (queue.size() >= properties.getDeadLetter().getBatchSize()
+                && scheduler != null && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * 先寫所有表頭再寫所有明細，讓 Hibernate 把同一張表的 INSERT 組成 JDBC 批次
+     */
+    private void writeBatch(List<DeadLetter> batch) {
+        List<MirrorArEx> headers = new ArrayList<>(batch.size());
+        List<MirrorArDetailEx> details = new ArrayList<>();
+        for (DeadLetter deadLetter : batch) {
+            headers.add(deadLetter.getHeader());
+            details.addAll(deadLetter.getDetails());
+        }
+        AuditRegisterEvents.DeadLetterWrite event = new AuditRegisterEvents.DeadLetterWrite();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            databaseConcurrencyLimiter.run(() -> transactionTemplate.executeWithoutResult(status -> {
+                mirrorArExRepository.saveAll(headers);
+                mirrorArDetailExRepository.saveAll(details);
+                mirrorArDetailExRepository.flush();
+            }));
+            event.success = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.transactionCount = headers.size();
+                event.entryCount = details.size();
+                event.commit();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        written.addAndGet(batch.size());
+        batchCount.incrementAndGet();
+        lastBatchNanos.set(nanos);
+        maxBatchNanos.accumulateAndGet(nanos, Math::max);
+        log.debug("Wrote {} dead-letter record(s) in {}ms", batch.size(), TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * 整批失敗後逐筆重寫，找出無法寫入的記錄；返回最後一個錯誤，全部寫入成功時返回 null
+     */
+    private RuntimeException writeOneByOne(List<DeadLetter> batch) {
+        log.warn("Failed to write {} dead-letter record(s) as a batch, retrying one by one", batch.size());
+        RuntimeException failure = null;
+        for (DeadLetter deadLetter : batch) {
+            try {
+                writeBatch(List.of(deadLetter));
+            } catch (RuntimeException e) {
+                failure = retryLater(deadLetter, e);
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * 記錄一次寫入失敗：未達 max-attempts 時留待下次重試，達到時放棄並計為 poisoned
+     */
+    private RuntimeException retryLater(DeadLetter deadLetter, RuntimeException cause) {
+        MirrorArEx header = deadLetter.getHeader();
+        int attempts = deadLetter.recordFailedAttempt();
+        int maxAttempts = Math.max(1, properties.getDeadLetter().getMaxAttempts());
+        if (attempts >= maxAttempts) {
+            poisoned.incrementAndGet();
+            log.error("Giving up on dead-letter record for deviceId: {}, seqNum: {} after {} attempt(s)",
+                    header.getDeviceId(), header.getAuditRegisterSeqNum(), attempts, cause);
+        } else {
+            retry.add(deadLetter);
+            log.error("Failed to write dead-letter record for deviceId: {}, seqNum: {}, will retry ({}/{})",
+                    header.getDeviceId(), header.getAuditRegisterSeqNum(), attempts, maxAttempts, cause);
+        }
+        return cause;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // already logged in flush(); keep the scheduler alive
+        }
+    }
+
+    /**
+     * 一筆待寫入的失敗交易；attempts 只在 flushLock 內存取
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static class DeadLetter {
+        private final MirrorArEx header;
+        private final List<MirrorArDetailEx> details;
+        private int attempts;
+
+        int recordFailedAttempt() {
+            return ++attempts;
+        }
+    }
+}
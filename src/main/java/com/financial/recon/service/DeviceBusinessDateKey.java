@@ -0,0 +1,16 @@
+package com.financial.recon.service;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * 設備 + 業務實體 + 業務日期 組合鍵
+ * 重啟檢測按此粒度比較 AR 序列號
+ */
+@Value
+public class DeviceBusinessDateKey {
+    String deviceId;
+    Integer beId;
+    LocalDate businessDate;
+}
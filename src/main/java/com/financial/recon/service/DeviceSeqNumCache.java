@@ -0,0 +1,128 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.SeqNumCacheStats;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 設備最大 AR 序列號快取
+ * 以 (deviceId, beId, businessDate) 為鍵、有上限的 LRU 快取；未命中時由呼叫方批量從資料庫載入，
+ * 交易提交後再以本次處理的序列號更新，讓熱路徑上的重啟檢測不需要查詢。
+ * 快取只反映本程序寫入的資料，多實例部署時其他實例的更新要等到淘汰後才會重新載入
+ */
+@Component
+public class DeviceSeqNumCache {
+
+    private final AuditRegisterProperties properties;
+    private final Map<DeviceBusinessDateKey, Integer> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DeviceSeqNumCache(AuditRegisterProperties properties) {
+        this.properties = properties;
+        int maxEntries = properties.getSeqNumCache().getMaxEntries();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DeviceBusinessDateKey, Integer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return properties.getSeqNumCache().isEnabled();
+    }
+
+    /**
+     * 取得多個鍵的最大序列號；未命中的鍵一次交給 loader 載入並放入快取
+     * 資料庫中沒有記錄的鍵不會出現在結果中
+     */
+    public Map<DeviceBusinessDateKey, Integer> getAll(
+            Collection<DeviceBusinessDateKey> keys,
+            Function<Set<DeviceBusinessDateKey>, Map<DeviceBusinessDateKey, Integer>> loader) {
+        Map<DeviceBusinessDateKey, Integer> result = new HashMap<>();
+        Set<DeviceBusinessDateKey> missing = new HashSet<>();
+        synchronized (cache) {
+            for (DeviceBusinessDateKey key : keys) {
+                Integer seqNum = cache.get(key);
+                if (seqNum != null) {
+                    result.put(key, seqNum);
+                } else {
+                    missing.add(key);
+                }
+            }
+        }
+        hits.addAndGet(result.size());
+        misses.addAndGet(missing.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<DeviceBusinessDateKey, Integer> loaded = loader.apply(missing);
+        synchronized (cache) {
+            loaded.forEach((key, seqNum) -> cache.merge(key, seqNum, Math::max));
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * 交易提交後把本次處理的最大序列號寫入快取；無交易時立即寫入
+     */
+    public void updateAfterCommit(Map<DeviceBusinessDateKey, Integer> seqNums) {
+        if (seqNums.isEmpty()) {
+            return;
+        }
+        Map<DeviceBusinessDateKey, Integer> copy = Map.copyOf(seqNums);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putAll(copy);
+                }
+            });
+        } else {
+            putAll(copy);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public SeqNumCacheStats getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return SeqNumCacheStats.builder()
+                .enabled(isEnabled())
+                .size(size)
+                .maxEntries(properties.getSeqNumCache().getMaxEntries())
+                .hits(hitCount)
+                .misses(misses.get())
+                .hitRate(lookups > 0 ? (double) hitCount / lookups : 0.0)
+                .build();
+    }
+
+    private void putAll(Map<DeviceBusinessDateKey, Integer> seqNums) {
+        synchronized (cache) {
+            seqNums.forEach((key, seqNum) -> cache.merge(key, seqNum, Math::max));
+        }
+    }
+}
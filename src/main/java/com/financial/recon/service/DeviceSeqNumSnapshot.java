@@ -0,0 +1,37 @@
+package com.financial.recon.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 請求開始時預取的設備最大 AR 序列號快照
+ * 重啟檢測在此快照上進行；每處理完一筆交易就更新快照，讓同一請求中後續交易看到最新狀態
+ */
+public class DeviceSeqNumSnapshot {
+
+    private final Map<DeviceBusinessDateKey, Integer> maxSeqNums;
+    private final Map<DeviceBusinessDateKey, Integer> recorded = new HashMap<>();
+
+    public DeviceSeqNumSnapshot(Map<DeviceBusinessDateKey, Integer> loaded) {
+        this.maxSeqNums = new HashMap<>(loaded);
+    }
+
+    public Optional<Integer> maxSeqNum(DeviceBusinessDateKey key) {
+        return Optional.ofNullable(maxSeqNums.get(key));
+    }
+
+    public void record(DeviceBusinessDateKey key, Integer seqNum) {
+        if (seqNum != null) {
+            maxSeqNums.merge(key, seqNum, Math::max);
+            recorded.merge(key, seqNum, Math::max);
+        }
+    }
+
+    /**
+     * 本次處理中記錄過的鍵及其最大序列號
+     */
+    public Map<DeviceBusinessDateKey, Integer> recorded() {
+        return recorded;
+    }
+}
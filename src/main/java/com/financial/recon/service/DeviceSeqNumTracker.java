@@ -0,0 +1,132 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.SeqNumGapReport;
+import com.financial.recon.entity.DeviceArSeqSet;
+import com.financial.recon.entity.DeviceArSeqSetId;
+import com.financial.recon.repository.DeviceArSeqSetRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 設備序列號追蹤
+ * 載入並鎖定請求涉及的 DEVICE_AR_SEQ_SET 記錄，在記憶體中判定重送和記錄已處理的序列號，
+ * 最後隨請求的交易一起寫回。
+ * 與摘要延遲寫入（write-behind）互斥：序列號集合隨請求提交，摘要增量卻只在記憶體中，
+ * 程序異常終止後設備的重送會被跳過，增量永久遺失；兩者同時啟用時啟動失敗
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceSeqNumTracker {
+
+    /**
+     * 每條鎖定查詢最多的主鍵數，每個主鍵佔三個綁定變數
+     */
+    private static final int LOCK_BATCH_SIZE = 300;
+
+    private final DeviceArSeqSetRepository deviceArSeqSetRepository;
+    private final AuditRegisterProperties properties;
+
+    @PostConstruct
+    void checkWriteBehind() {
+        if (isEnabled() && properties.getWriteBehind().isEnabled()) {
+            throw new IllegalStateException("recon.audit-register.seq-tracking and recon.audit-register.write-behind "
+                    + "cannot both be enabled: buffered summary deltas lost in a crash would never be re-accumulated "
+                    + "because the device's retry is skipped as a duplicate");
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.getSeqTracking().isEnabled();
+    }
+
+    /**
+     * 一次載入（並鎖定）所有鍵的序列號集合
+     * 先為資料庫中沒有的鍵插入空記錄，讓首次上傳的設備也能被鎖定；再按主鍵順序鎖定。
+     * 新記錄的時間戳取自請求時鐘，與同一交易寫入的 MIRROR_AR 及摘要列一致
+     */
+    public SeqNumTracking load(Set<DeviceBusinessDateKey> keys, RequestClock clock) {
+        if (!isEnabled() || keys.isEmpty()) {
+            return SeqNumTracking.disabled();
+        }
+        List<DeviceArSeqSetId> ids = keys.stream()
+                .map(key -> new DeviceArSeqSetId(key.getDeviceId(), key.getBeId(), key.getBusinessDate()))
+                .sorted(DeviceArSeqSetId.PRIMARY_KEY_ORDER)
+                .toList();
+        deviceArSeqSetRepository.insertMissing(ids, clock.now());
+
+        Map<DeviceBusinessDateKey, SeqNumTracking.State> states = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOCK_BATCH_SIZE) {
+            List<DeviceArSeqSetId> chunk = ids.subList(from, Math.min(from + LOCK_BATCH_SIZE, ids.size()));
+            for (DeviceArSeqSet row : deviceArSeqSetRepository.findForUpdate(chunk)) {
+                DeviceBusinessDateKey key = new DeviceBusinessDateKey(
+                        row.getDeviceId(), row.getBeId(), row.getBusinessDate());
+                states.put(key, new SeqNumTracking.State(key, row,
+                        SeqNumRangeSet.fromBytes(row.getSeqRuns()),
+                        row.getPrevSeqRuns() != null ? SeqNumRangeSet.fromBytes(row.getPrevSeqRuns()) : null,
+                        row.getEpoch(), row.getLastTxnTime(), row.getPrevLastTxnTime(), false));
+            }
+        }
+        return new SeqNumTracking(states);
+    }
+
+    /**
+     * 寫回有變更的序列號集合
+     */
+    public void save(SeqNumTracking tracking, RequestClock clock) {
+        OffsetDateTime now = clock.now();
+        List<DeviceArSeqSet> changed = new ArrayList<>();
+        for (SeqNumTracking.State state : tracking.states()) {
+            if (!state.isDirty()) {
+                continue;
+            }
+            DeviceArSeqSet row = state.getRow();
+            row.setEpoch(state.getEpoch());
+            row.setSeqRuns(state.getSeqNums().toBytes());
+            row.setProcessedCount(state.getSeqNums().cardinality());
+            row.setLastTxnTime(state.getLastTxnTime());
+            row.setPrevSeqRuns(state.getPreviousSeqNums() != null ? state.getPreviousSeqNums().toBytes() : null);
+            row.setPrevLastTxnTime(state.getPreviousLastTxnTime());
+            row.setLastUpdatedTime(now);
+            changed.add(row);
+        }
+        if (!changed.isEmpty()) {
+            deviceArSeqSetRepository.saveAll(changed);
+        }
+    }
+
+    /**
+     * 查詢設備在某業務日期本輪缺少的序列號
+     */
+    @Transactional(readOnly = true)
+    public Optional<SeqNumGapReport> gapReport(String deviceId, Integer beId, LocalDate businessDate) {
+        return deviceArSeqSetRepository.findById(new DeviceArSeqSetId(deviceId, beId, businessDate))
+                .map(row -> {
+                    SeqNumRangeSet seqNums = SeqNumRangeSet.fromBytes(row.getSeqRuns());
+                    return SeqNumGapReport.builder()
+                            .deviceId(row.getDeviceId())
+                            .beId(row.getBeId())
+                            .businessDate(row.getBusinessDate())
+                            .epoch(row.getEpoch())
+                            .minSeqNum(seqNums.min())
+                            .maxSeqNum(seqNums.max())
+                            .processedCount(seqNums.cardinality())
+                            .gaps(seqNums.gaps())
+                            .lastTxnTime(row.getLastTxnTime())
+                            .build();
+                });
+    }
+}
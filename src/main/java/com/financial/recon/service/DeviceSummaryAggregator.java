@@ -0,0 +1,70 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.AuditRegisterEntry;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryDelta;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryId;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 設備審計註冊摘要聚合器
+ * 寫入資料庫前，把一個請求內的所有條目按 DeviceAuditRegisterSummaryId 合併為一筆增量：
+ * 計數和金額（分）以 long 相加並檢查溢位，LAST_AR_SEQ_NUM 取最大值。非執行緒安全，每個請求建立一個實例
+ */
+public class DeviceSummaryAggregator {
+
+    private final Map<DeviceAuditRegisterSummaryId, DeviceAuditRegisterSummaryDelta> deltas = new LinkedHashMap<>();
+    private int entryCount;
+
+    /**
+     * 把一筆交易的所有條目累加到對應主鍵的增量
+     * 先在本筆交易自己的暫存增量中累加，再逐一檢查與已累計值相加是否溢位，全部通過才合併；
+     * 溢位時拋 ArithmeticException，聚合器內容保持不變，不會留下只累加了一部分條目的增量
+     */
+    public void add(AuditRegisterTransaction txn) {
+        Integer seqNum = txn.getAuditRegisterSeqNum();
+        Map<DeviceAuditRegisterSummaryId, DeviceAuditRegisterSummaryDelta> txnDeltas = new LinkedHashMap<>();
+        for (AuditRegisterEntry entry : txn.getAuditRegisterEntries()) {
+            String cardMediaTypeId = entry.getCardMediaTypeId() != null ? entry.getCardMediaTypeId() : "";
+            DeviceAuditRegisterSummaryId id = new DeviceAuditRegisterSummaryId(
+                    txn.getDeviceId(), txn.getBeId(), txn.getBusinessDate(),
+                    entry.getArTypeIdentifier(), cardMediaTypeId);
+
+            long count = entry.getCount() != null ? entry.getCount().longValue() : 0L;
+            long valueMinor = entry.getValueMinor() != null ? entry.getValueMinor() : 0L;
+
+            txnDeltas.computeIfAbsent(id, key -> DeviceAuditRegisterSummaryDelta.builder().id(key).build())
+                    .add(count, valueMinor, seqNum);
+        }
+
+        for (DeviceAuditRegisterSummaryDelta txnDelta : txnDeltas.values()) {
+            DeviceAuditRegisterSummaryDelta existing = deltas.get(txnDelta.getId());
+            if (existing != null) {
+                Math.addExact(existing.getCountDelta(), txnDelta.getCountDelta());
+                Math.addExact(existing.getValueDeltaMinor(), txnDelta.getValueDeltaMinor());
+            }
+        }
+        for (DeviceAuditRegisterSummaryDelta txnDelta : txnDeltas.values()) {
+            DeviceAuditRegisterSummaryDelta existing = deltas.putIfAbsent(txnDelta.getId(), txnDelta);
+            if (existing != null) {
+                existing.add(txnDelta);
+            }
+        }
+        entryCount += txn.getAuditRegisterEntries().size();
+    }
+
+    public Collection<DeviceAuditRegisterSummaryDelta> deltas() {
+        return deltas.values();
+    }
+
+    public int entryCount() {
+        return entryCount;
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+}
@@ -0,0 +1,134 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.FlightRecordingStatus;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 管理端點啟動的 JFR 錄製
+ * 同一時間只有一個錄製；錄製有時間、保留時長及大小上限，不需要在正式環境掛代理程式即可取得熱點剖析。
+ * 錄製包含 AuditRegisterEvents 的自訂事件及所選 JFR 設定檔的 JVM 事件；
+ * jfr/audit-register.jfc 疊加在設定檔之上，關閉會記錄環境變數、系統屬性及啟動參數的事件。
+ * 只在 recon.audit-register.flight-recording.enabled=true 時建立
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recon.audit-register.flight-recording", name = "enabled", havingValue = "true")
+public class FlightRecordingManager {
+
+    private static final String RECORDING_NAME = "audit-register";
+    private static final String OVERRIDES = "/jfr/audit-register.jfc";
+
+    private final AuditRegisterProperties properties;
+
+    private Recording recording;
+
+    /**
+     * 開始新的錄製；已在錄製中時返回 false。上一次的錄製會被關閉，其資料不再可下載
+     */
+    public synchronized boolean start() throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return false;
+        }
+        closeRecording();
+        AuditRegisterProperties.FlightRecording settings = properties.getFlightRecording();
+        Recording started = new Recording(recordingSettings(settings.getSettings()));
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setDuration(settings.getMaxDuration());
+        started.setMaxAge(settings.getMaxAge());
+        started.setMaxSize(settings.getMaxSize().toBytes());
+        started.start();
+        recording = started;
+        log.info("Flight recording started. settings: {}, maxDuration: {}, maxAge: {}, maxSize: {}",
+                settings.getSettings(), settings.getMaxDuration(), settings.getMaxAge(), settings.getMaxSize());
+        return true;
+    }
+
+    /**
+     * 停止錄製；沒有進行中的錄製時返回 false。停止後的資料保留到下次 start()
+     */
+    public synchronized boolean stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            return false;
+        }
+        recording.stop();
+        log.info("Flight recording stopped. size: {} bytes", recording.getSize());
+        return true;
+    }
+
+    /**
+     * 把目前的錄製內容（進行中或已停止）寫到暫存檔並返回其輸入串流，串流關閉時刪除暫存檔
+     */
+    public synchronized Optional<InputStream> dump() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            return Optional.empty();
+        }
+        Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        try {
+            recording.dump(file);
+            return Optional.of(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    public synchronized FlightRecordingStatus getStatus() {
+        AuditRegisterProperties.FlightRecording settings = properties.getFlightRecording();
+        FlightRecordingStatus.FlightRecordingStatusBuilder status = FlightRecordingStatus.builder()
+                .state(recording != null ? recording.getState().name() : "NONE")
+                .settings(settings.getSettings())
+                .maxDurationSeconds(settings.getMaxDuration().toSeconds())
+                .maxAgeSeconds(settings.getMaxAge().toSeconds())
+                .maxSizeBytes(settings.getMaxSize().toBytes());
+        if (recording != null) {
+            status.startTime(recording.getStartTime())
+                    .stopTime(recording.getStopTime())
+                    .sizeBytes(recording.getSize());
+        }
+        return status.build();
+    }
+
+    /**
+     * 內建設定檔的設定，再以 audit-register.jfc 的設定覆蓋
+     */
+    static Map<String, String> recordingSettings(String configurationName) throws IOException, ParseException {
+        Map<String, String> merged = new HashMap<>(Configuration.getConfiguration(configurationName).getSettings());
+        try (InputStream in = FlightRecordingManager.class.getResourceAsStream(OVERRIDES)) {
+            if (in == null) {
+                throw new IOException("JFR settings overrides not found: " + OVERRIDES);
+            }
+            merged.putAll(Configuration.create(new InputStreamReader(in, StandardCharsets.UTF_8)).getSettings());
+        }
+        return merged;
+    }
+
+    @PreDestroy
+    synchronized void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
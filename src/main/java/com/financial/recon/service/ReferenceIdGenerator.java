@@ -0,0 +1,13 @@
+package com.financial.recon.service;
+
+/**
+ * MIRROR_AR / MIRROR_AR_DETAIL 的 REFERENCE_ID 產生器
+ * 由 recon.audit-register.reference-id.generator 選擇實作：time-ordered（預設）或 uuid
+ */
+public interface ReferenceIdGenerator {
+
+    /**
+     * 產生下一個唯一的參考ID，長度不超過 REFERENCE_ID 欄位的 64 個字元
+     */
+    String nextId();
+}
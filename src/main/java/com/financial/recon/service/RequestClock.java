@@ -0,0 +1,77 @@
+package com.financial.recon.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 單次請求的時鐘快照：同一請求內的所有列使用相同的接收時間、今日日期及 UDSN 時間戳，
+ * 不必每列各讀一次系統時鐘；業務日期對應的 OffsetDateTime 按日期快取；另附請求內遞增的 UDSN 序號。
+ * 分片並行時由多個工作執行緒共用，因此快取及序號為執行緒安全
+ */
+public final class RequestClock {
+
+    private final OffsetDateTime now;
+    private final LocalDate today;
+    private final long epochMillis;
+    private final Map<LocalDate, OffsetDateTime> businessDateTimes = new ConcurrentHashMap<>(4);
+    private final AtomicInteger udsnSequence = new AtomicInteger();
+
+    private RequestClock(Clock clock) {
+        Instant instant = clock.instant();
+        this.epochMillis = instant.toEpochMilli();
+        this.now = OffsetDateTime.ofInstant(instant, clock.getZone());
+        this.today = now.toLocalDate();
+    }
+
+    public static RequestClock snapshot() {
+        return new RequestClock(Clock.systemDefaultZone());
+    }
+
+    public static RequestClock of(Clock clock) {
+        return new RequestClock(clock);
+    }
+
+    public OffsetDateTime now() {
+        return now;
+    }
+
+    public LocalDate today() {
+        return today;
+    }
+
+    public long epochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * 下一個 UDSN 序號，從 0 開始；同一請求內相同設備及序列號的兩筆交易因此不會得到相同的 UDSN
+     */
+    public int nextUdsnSequence() {
+        return udsnSequence.getAndIncrement();
+    }
+
+    public ZoneOffset offset() {
+        return now.getOffset();
+    }
+
+    /**
+     * 業務日期當天零時（請求時區偏移），null 時返回 null
+     */
+    public OffsetDateTime startOf(LocalDate businessDate) {
+        if (businessDate == null) {
+            return null;
+        }
+        OffsetDateTime start = businessDateTimes.get(businessDate);
+        if (start == null) {
+            start = businessDate.atStartOfDay().atOffset(now.getOffset());
+            businessDateTimes.putIfAbsent(businessDate, start);
+        }
+        return start;
+    }
+}
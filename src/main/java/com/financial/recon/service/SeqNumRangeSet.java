@@ -0,0 +1,194 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.SeqNumRange;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 以連續區間（run-length）儲存的 AR 序列號集合
+ * 設備的序列號大多連續遞增，通常只需要很少的區間；序列化時以變長整數記錄區間差值
+ */
+public class SeqNumRangeSet {
+
+    private int[] starts;
+    private int[] ends;
+    private int runs;
+
+    public SeqNumRangeSet() {
+        this.starts = new int[4];
+        this.ends = new int[4];
+    }
+
+    private SeqNumRangeSet(int[] starts, int[] ends, int runs) {
+        this.starts = starts;
+        this.ends = ends;
+        this.runs = runs;
+    }
+
+    /**
+     * 加入一個序列號；已存在時返回 false
+     */
+    public boolean add(int seqNum) {
+        int i = floorRun(seqNum);
+        if (i >= 0 && seqNum <= ends[i]) {
+            return false;
+        }
+        boolean joinsLeft = i >= 0 && (long) ends[i] + 1 == seqNum;
+        boolean joinsRight = i + 1 < runs && (long) starts[i + 1] - 1 == seqNum;
+        if (joinsLeft && joinsRight) {
+            ends[i] = ends[i + 1];
+            removeRun(i + 1);
+        } else if (joinsLeft) {
+            ends[i] = seqNum;
+        } else if (joinsRight) {
+            starts[i + 1] = seqNum;
+        } else {
+            insertRun(i + 1, seqNum);
+        }
+        return true;
+    }
+
+    public boolean contains(int seqNum) {
+        int i = floorRun(seqNum);
+        return i >= 0 && seqNum <= ends[i];
+    }
+
+    public boolean isEmpty() {
+        return runs == 0;
+    }
+
+    public Integer min() {
+        return runs > 0 ? starts[0] : null;
+    }
+
+    public Integer max() {
+        return runs > 0 ? ends[runs - 1] : null;
+    }
+
+    public long cardinality() {
+        long total = 0;
+        for (int i = 0; i < runs; i++) {
+            total += (long) ends[i] - starts[i] + 1;
+        }
+        return total;
+    }
+
+    public int runCount() {
+        return runs;
+    }
+
+    public void clear() {
+        runs = 0;
+    }
+
+    /**
+     * 最小值與最大值之間缺少的序列號區間
+     */
+    public List<SeqNumRange> gaps() {
+        List<SeqNumRange> gaps = new ArrayList<>(Math.max(0, runs - 1));
+        for (int i = 0; i + 1 < runs; i++) {
+            gaps.add(new SeqNumRange(ends[i] + 1, starts[i + 1] - 1));
+        }
+        return gaps;
+    }
+
+    /**
+     * 序列化格式：區間數，接著每個區間的 (起點與上一個終點的差值, 長度-1)，皆為 zig-zag 變長整數
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + runs * 4);
+        writeVarLong(out, runs);
+        long previousEnd = 0;
+        for (int i = 0; i < runs; i++) {
+            writeVarLong(out, zigZag(starts[i] - previousEnd));
+            writeVarLong(out, (long) ends[i] - starts[i]);
+            previousEnd = ends[i];
+        }
+        return out.toByteArray();
+    }
+
+    public static SeqNumRangeSet fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new SeqNumRangeSet();
+        }
+        int[] position = {0};
+        int runs = (int) readVarLong(bytes, position);
+        int[] starts = new int[Math.max(4, runs)];
+        int[] ends = new int[Math.max(4, runs)];
+        long previousEnd = 0;
+        for (int i = 0; i < runs; i++) {
+            long start = previousEnd + unZigZag(readVarLong(bytes, position));
+            long end = start + readVarLong(bytes, position);
+            starts[i] = (int) start;
+            ends[i] = (int) end;
+            previousEnd = end;
+        }
+        return new SeqNumRangeSet(starts, ends, runs);
+    }
+
+    /**
+     * 起點小於等於 seqNum 的最後一個區間索引，沒有則返回 -1
+     */
+    private int floorRun(int seqNum) {
+        int low = 0;
+        int high = runs - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= seqNum) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private void insertRun(int index, int seqNum) {
+        if (runs == starts.length) {
+            starts = Arrays.copyOf(starts, runs * 2);
+            ends = Arrays.copyOf(ends, runs * 2);
+        }
+        System.arraycopy(starts, index, starts, index + 1, runs - index);
+        System.arraycopy(ends, index, ends, index + 1, runs - index);
+        starts[index] = seqNum;
+        ends[index] = seqNum;
+        runs++;
+    }
+
+    private void removeRun(int index) {
+        System.arraycopy(starts, index + 1, starts, index, runs - index - 1);
+        System.arraycopy(ends, index + 1, ends, index, runs - index - 1);
+        runs--;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,111 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.entity.DeviceArSeqSet;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 單次處理中各設備已處理序列號的狀態
+ * 判定規則：
+ * 1. 交易時間晚於本輪最後交易時間，且序列號不大於本輪最大值 → 設備重啟，本輪集合移為上一輪，開始新一輪
+ * 2. 交易時間不晚於上一輪最後交易時間 → 重啟前的交易（延遲重送或補傳），以上一輪集合判定及記錄
+ * 3. 否則序列號已在本輪集合中 → 重送，跳過
+ * 4. 其餘為新交易（包含補傳的缺號）
+ * 只保留上一輪；同一天重啟兩次以上時，更早一輪的延遲重送無法識別
+ */
+public class SeqNumTracking {
+
+    private static final SeqNumTracking DISABLED = new SeqNumTracking(Map.of());
+
+    private final Map<DeviceBusinessDateKey, State> states;
+
+    SeqNumTracking(Map<DeviceBusinessDateKey, State> states) {
+        this.states = states;
+    }
+
+    static SeqNumTracking disabled() {
+        return DISABLED;
+    }
+
+    public boolean isDuplicate(AuditRegisterTransaction txn) {
+        State state = states.get(keyOf(txn));
+        if (state == null || txn.getAuditRegisterSeqNum() == null) {
+            return false;
+        }
+        if (isRestart(state, txn)) {
+            return false;
+        }
+        if (isPreviousEpoch(state, txn)) {
+            return state.getPreviousSeqNums().contains(txn.getAuditRegisterSeqNum());
+        }
+        return state.getSeqNums().contains(txn.getAuditRegisterSeqNum());
+    }
+
+    public void record(AuditRegisterTransaction txn) {
+        State state = states.get(keyOf(txn));
+        if (state == null || txn.getAuditRegisterSeqNum() == null) {
+            return;
+        }
+        state.setDirty(true);
+        if (isRestart(state, txn)) {
+            state.setEpoch(state.getEpoch() + 1);
+            state.setPreviousSeqNums(state.getSeqNums());
+            state.setPreviousLastTxnTime(state.getLastTxnTime());
+            state.setSeqNums(new SeqNumRangeSet());
+            state.setLastTxnTime(null);
+        } else if (isPreviousEpoch(state, txn)) {
+            state.getPreviousSeqNums().add(txn.getAuditRegisterSeqNum());
+            return;
+        }
+        state.getSeqNums().add(txn.getAuditRegisterSeqNum());
+        OffsetDateTime txnTime = txn.getTransactionDateTime();
+        if (txnTime != null && (state.getLastTxnTime() == null || txnTime.isAfter(state.getLastTxnTime()))) {
+            state.setLastTxnTime(txnTime);
+        }
+    }
+
+    Collection<State> states() {
+        return states.values();
+    }
+
+    private static boolean isRestart(State state, AuditRegisterTransaction txn) {
+        Integer max = state.getSeqNums().max();
+        OffsetDateTime txnTime = txn.getTransactionDateTime();
+        return max != null && txn.getAuditRegisterSeqNum() <= max
+                && txnTime != null && state.getLastTxnTime() != null
+                && txnTime.isAfter(state.getLastTxnTime());
+    }
+
+    /**
+     * 交易時間不晚於重啟前最後的交易時間，屬於上一輪
+     */
+    private static boolean isPreviousEpoch(State state, AuditRegisterTransaction txn) {
+        OffsetDateTime txnTime = txn.getTransactionDateTime();
+        return state.getPreviousSeqNums() != null && state.getPreviousLastTxnTime() != null
+                && txnTime != null && !txnTime.isAfter(state.getPreviousLastTxnTime());
+    }
+
+    private static DeviceBusinessDateKey keyOf(AuditRegisterTransaction txn) {
+        return new DeviceBusinessDateKey(txn.getDeviceId(), txn.getBeId(), txn.getBusinessDate());
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    static class State {
+        private final DeviceBusinessDateKey key;
+        private final DeviceArSeqSet row;
+        private SeqNumRangeSet seqNums;
+        private SeqNumRangeSet previousSeqNums;
+        private int epoch;
+        private OffsetDateTime lastTxnTime;
+        private OffsetDateTime previousLastTxnTime;
+        private boolean dirty;
+    }
+}
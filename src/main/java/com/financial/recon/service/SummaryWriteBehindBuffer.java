@@ -0,0 +1,256 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.SummaryWriteBehindStats;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryDelta;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryId;
+import com.financial.recon.repository.DeviceAuditRegisterSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DEVICE_AR_SUMMARY 延遲寫入緩衝
+ * 所有請求的摘要增量先在並發 Map 中按主鍵合併，由背景執行緒在達到時間或主鍵數門檻時
+ * 以 MERGE 批次寫入；應用程式正常關閉時會把剩餘增量全部寫出。
+ * 注意：程序異常終止時，尚未寫出的增量會遺失，因此預設關閉
+ */
+@Slf4j
+@Component
+public class SummaryWriteBehindBuffer {
+
+    private final DeviceAuditRegisterSummaryRepository deviceAuditRegisterSummaryRepository;
+    private final AuditRegisterProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+
+    private final Map<DeviceAuditRegisterSummaryId, DeviceAuditRegisterSummaryDelta> buffer = new ConcurrentHashMap<>();
+    private final Map<DeviceBusinessDateKey, Integer> pendingMaxSeqNums = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong flushedKeys = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public SummaryWriteBehindBuffer(DeviceAuditRegisterSummaryRepository deviceAuditRegisterSummaryRepository,
+                                    AuditRegisterProperties properties,
+                                    PlatformTransactionManager transactionManager,
+                                    DatabaseConcurrencyLimiter databaseConcurrencyLimiter) {
+        this.deviceAuditRegisterSummaryRepository = deviceAuditRegisterSummaryRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        long intervalMillis = properties.getWriteBehind().getFlushInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "summary-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Summary write-behind enabled. flushInterval: {}ms, maxBufferedKeys: {}",
+                intervalMillis, properties.getWriteBehind().getMaxBufferedKeys());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Draining {} buffered summary key(s) before shutdown", buffer.size());
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return properties.getWriteBehind().isEnabled();
+    }
+
+    /**
+     * 加入一批增量；若當前有交易，延後到交易提交後才加入，回滾的請求不會被累計
+     */
+    public void addAll(Collection<DeviceAuditRegisterSummaryDelta> deltas) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<DeviceAuditRegisterSummaryDelta> copies = deltas.stream()
+                    .map(DeviceAuditRegisterSummaryDelta::copy)
+                    .toList();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge(copies);
+                }
+            });
+        } else {
+            merge(deltas);
+        }
+    }
+
+    /**
+     * 緩衝中尚未寫入資料庫的最大 AR 序列號，供重啟檢測使用
+     */
+    public Optional<Integer> pendingMaxSeqNum(String deviceId, Integer beId, LocalDate businessDate) {
+        return Optional.ofNullable(pendingMaxSeqNums.get(new DeviceBusinessDateKey(deviceId, beId, businessDate)));
+    }
+
+    /**
+     * 立即把目前緩衝的增量寫入資料庫；與請求共用資料庫並行許可，
+     * 失敗（含等不到許可）時增量會合併回緩衝等待下次重試
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushScheduled.set(false);
+            if (buffer.isEmpty()) {
+                return;
+            }
+            List<DeviceAuditRegisterSummaryDelta> drained = new ArrayList<>(buffer.size());
+            for (DeviceAuditRegisterSummaryId id : buffer.keySet()) {
+                DeviceAuditRegisterSummaryDelta delta = buffer.remove(id);
+                if (delta != null) {
+                    drained.add(delta);
+                }
+            }
+
+            long start = System.nanoTime();
+            try {
+                int batchSize = Math.max(1, properties.getBatchSize());
+                OffsetDateTime now = OffsetDateTime.now();
+                databaseConcurrencyLimiter.run(() -> transactionTemplate.executeWithoutResult(status -> {
+                    for (int from = 0; from < drained.size(); from += batchSize) {
+                        deviceAuditRegisterSummaryRepository.upsertAll(
+                                drained.subList(from, Math.min(from + batchSize, drained.size())), now);
+                    }
+                }));
+                recordFlush(System.nanoTime() - start, drained.size());
+                releasePendingSeqNums(drained);
+                log.debug("Flushed {} buffered summary key(s) in {}ms",
+                        drained.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (RuntimeException e) {
+                failedFlushCount.incrementAndGet();
+                drained.forEach(this::restore);
+                log.error("Failed to flush {} buffered summary key(s), will retry", drained.size(), e);
+                throw e;
+            }
+        }
+    }
+
+    public SummaryWriteBehindStats getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        long flushes = flushCount.get();
+        return SummaryWriteBehindStats.builder()
+                .enabled(isEnabled())
+                .bufferedKeys(buffer.size())
+                .hits(hitCount)
+                .misses(misses.get())
+                .hitRate(lookups > 0 ? (double) hitCount / lookups : 0.0)
+                .flushCount(flushes)
+                .failedFlushCount(failedFlushCount.get())
+                .flushedKeys(flushedKeys.get())
+                .lastFlushMillis(TimeUnit.NANOSECONDS.toMillis(lastFlushNanos.get()))
+                .maxFlushMillis(TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()))
+                .avgFlushMillis(flushes > 0 ? totalFlushNanos.get() / 1_000_000.0 / flushes : 0.0)
+                .build();
+    }
+
+    private void merge(Collection<DeviceAuditRegisterSummaryDelta> deltas) {
+        deltas.forEach(this::mergeOne);
+        if (buffer.size() >= properties.getWriteBehind().getMaxBufferedKeys()
+                && scheduler != null && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    private void mergeOne(DeviceAuditRegisterSummaryDelta delta) {
+        buffer.compute(delta.getId(), (id, existing) -> {
+            if (existing == null) {
+                misses.incrementAndGet();
+                return delta.copy();
+            }
+            hits.incrementAndGet();
+            existing.add(delta);
+            return existing;
+        });
+        if (delta.getLastArSeqNum() != null) {
+            DeviceAuditRegisterSummaryId id = delta.getId();
+            pendingMaxSeqNums.merge(new DeviceBusinessDateKey(id.getDeviceId(), id.getBeId(), id.getBusinessDate()),
+                    delta.getLastArSeqNum(), Math::max);
+        }
+    }
+
+    /**
+     * 寫入失敗時把取出的增量合併回緩衝；不計入命中統計，待寫序列號在寫入成功前本來就未釋放
+     */
+    private void restore(DeviceAuditRegisterSummaryDelta delta) {
+        buffer.merge(delta.getId(), delta, (existing, failed) -> {
+            existing.add(failed);
+            return existing;
+        });
+    }
+
+    private void releasePendingSeqNums(List<DeviceAuditRegisterSummaryDelta> flushed) {
+        for (DeviceAuditRegisterSummaryDelta delta : flushed) {
+            DeviceAuditRegisterSummaryId id = delta.getId();
+            if (delta.getLastArSeqNum() != null) {
+                // 期間若已有更大的序列號進來，值不相等，保留該記錄
+                pendingMaxSeqNums.remove(new DeviceBusinessDateKey(id.getDeviceId(), id.getBeId(), id.getBusinessDate()),
+                        delta.getLastArSeqNum());
+            }
+        }
+    }
+
+    private void recordFlush(long nanos, int keys) {
+        flushCount.incrementAndGet();
+        flushedKeys.addAndGet(keys);
+        totalFlushNanos.addAndGet(nanos);
+        lastFlushNanos.set(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // already logged in flush(); keep the scheduler alive
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 依時間遞增的參考ID，Crockford Base32 字元：
+ * 前 13 個字元為 (自 2024-01-01 起的毫秒數 << 22 | 序號)，其後為節點欄位——
+ * 設定了 node-id 時為 2 個字元（10 位元），未設定時為啟動時隨機產生的 10 個字元（50 位元），
+ * 多實例未設定節點ID時也幾乎不可能重複（共 23 個字元，仍在 REFERENCE_ID 的 64 個字元內）。
+ * Crockford 字母表按 ASCII 排序，字串順序即產生順序，新的 INSERT 都落在主鍵索引的右端。
+ * 以 CAS 推進狀態，不加鎖；同一毫秒超過 2^22 個ID 或時鐘回撥時借用下一毫秒，保持嚴格遞增。
+ * 除最終的 String 外不配置其他物件（每個執行緒重用一個位元組緩衝）
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "recon.audit-register.reference-id", name = "generator",
+        havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedReferenceIdGenerator implements ReferenceIdGenerator {
+
+    static final int LENGTH = 15;
+    static final int RANDOM_NODE_LENGTH = 23;
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int SEQUENCE_BITS = 22;
+    private static final int TIME_CHARS = 13;
+    private static final int NODE_BITS = 10;
+    private static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final int RANDOM_NODE_CHARS = RANDOM_NODE_LENGTH - TIME_CHARS;
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[RANDOM_NODE_LENGTH]);
+
+    private final AtomicLong state = new AtomicLong();
+    private final byte[] nodeChars;
+
+    @Autowired
+    public TimeOrderedReferenceIdGenerator(AuditRegisterProperties properties) {
+        this(resolveNodeChars(properties.getReferenceId().getNodeId()));
+    }
+
+    TimeOrderedReferenceIdGenerator(int nodeId) {
+        this(configuredNodeChars(nodeId));
+    }
+
+    private TimeOrderedReferenceIdGenerator(byte[] nodeChars) {
+        this.nodeChars = nodeChars;
+    }
+
+    /**
+     * 未設定節點ID時使用的隨機節點欄位
+     */
+    static TimeOrderedReferenceIdGenerator withRandomNode() {
+        return new TimeOrderedReferenceIdGenerator(randomNodeChars());
+    }
+
+    @Override
+    public String nextId() {
+        long next;
+        long prev;
+        do {
+            prev = state.get();
+            long timeSlot = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            next = Math.max(prev + 1, timeSlot);
+        } while (!state.compareAndSet(prev, next));
+
+        byte[] buffer = BUFFER.get();
+        // 63 位元的狀態佔 13 個字元（最高字元只用 3 位元），節點欄位接在後面
+        for (int i = TIME_CHARS - 1; i >= 0; i--) {
+            buffer[i] = ALPHABET[(int) (next & 31)];
+            next >>>= 5;
+        }
+        System.arraycopy(nodeChars, 0, buffer, TIME_CHARS, nodeChars.length);
+        return new String(buffer, 0, TIME_CHARS + nodeChars.length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] configuredNodeChars(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        return new byte[]{ALPHABET[nodeId >>> 5], ALPHABET[nodeId & 31]};
+    }
+
+    private static byte[] randomNodeChars() {
+        byte[] chars = new byte[RANDOM_NODE_CHARS];
+        long random = new SecureRandom().nextLong();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ALPHABET[(int) (random & 31)];
+            random >>>= 5;
+        }
+        return chars;
+    }
+
+    /**
+     * 未設定節點ID時改用 50 位元的隨機節點欄位；主機名稱和程序ID雜湊到 1024 個節點ID，實例一多就容易撞號
+     */
+    private static byte[] resolveNodeChars(int configured) {
+        if (configured >= 0) {
+            return configuredNodeChars(configured);
+        }
+        byte[] chars = randomNodeChars();
+        log.info("recon.audit-register.reference-id.node-id is not set, using random node {} ({}-character reference ids)",
+                new String(chars, StandardCharsets.ISO_8859_1), RANDOM_NODE_LENGTH);
+        return chars;
+    }
+}
@@ -0,0 +1,20 @@
+package com.financial.recon.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * 隨機 UUID 參考ID（32 個大寫十六進位字元），即原本的產生方式
+ * 隨機鍵值會讓 INSERT 分散在整個主鍵索引上，僅為相容保留
+ */
+@Component
+@ConditionalOnProperty(prefix = "recon.audit-register.reference-id", name = "generator", havingValue = "uuid")
+public class UuidReferenceIdGenerator implements ReferenceIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 32).toUpperCase();
+    }
+}
@@ -0,0 +1,48 @@
+package com.financial.recon.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 背景工作執行緒的建立方式
+ * spring.threads.virtual.enabled=true 且執行於 Java 21 以上時建立虛擬執行緒，否則建立平台執行緒
+ */
+@Slf4j
+@Component
+public class WorkerThreadFactory {
+
+    private final boolean virtual;
+
+    public WorkerThreadFactory(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+        if (!virtual && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("spring.threads.virtual.enabled is set but the runtime is Java {}. " +
+                    "Virtual threads need Java 21+, falling back to platform threads.", Runtime.version().feature());
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * 以指定前綴命名的執行緒工廠；平台執行緒為 daemon 執行緒
+     */
+    public ThreadFactory named(String prefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
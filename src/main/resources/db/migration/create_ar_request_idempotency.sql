@@ -0,0 +1,22 @@
+-- 客戶端請求冪等記錄表
+-- 每個 X-Client-Request-Identifier 保存首次處理的響應，設備重試時直接返回，不再重複處理
+-- 保留期限由資料庫排程依 CREATED_TIME 清理
+
+CREATE TABLE AR_REQUEST_IDEMPOTENCY (
+    CLIENT_REQUEST_ID VARCHAR2(100 BYTE) NOT NULL,
+    REQUEST_HASH VARCHAR2(64 BYTE) NOT NULL,
+    RESPONSE_CODE VARCHAR2(30 BYTE) NOT NULL,
+    RESPONSE_BODY CLOB NOT NULL,
+    CREATED_TIME TIMESTAMP (6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT PK_AR_REQUEST_IDEMPOTENCY PRIMARY KEY (CLIENT_REQUEST_ID)
+);
+
+CREATE INDEX IDX_AR_REQUEST_IDEMPOTENCY_CREATED ON AR_REQUEST_IDEMPOTENCY (CREATED_TIME);
+
+-- 添加註釋
+COMMENT ON TABLE AR_REQUEST_IDEMPOTENCY IS '客戶端請求冪等記錄表，保存每個請求識別碼的首次響應';
+COMMENT ON COLUMN AR_REQUEST_IDEMPOTENCY.CLIENT_REQUEST_ID IS '客戶端請求識別碼（X-Client-Request-Identifier）';
+COMMENT ON COLUMN AR_REQUEST_IDEMPOTENCY.REQUEST_HASH IS '請求內容的 SHA-256，用於識別重用識別碼的不同請求';
+COMMENT ON COLUMN AR_REQUEST_IDEMPOTENCY.RESPONSE_CODE IS '響應代碼';
+COMMENT ON COLUMN AR_REQUEST_IDEMPOTENCY.RESPONSE_BODY IS '響應內容（JSON）';
+COMMENT ON COLUMN AR_REQUEST_IDEMPOTENCY.CREATED_TIME IS '創建時間';
@@ -0,0 +1,32 @@
+-- 設備已處理AR序列號集合表
+-- 用於跳過設備重送的交易，並查詢缺少的序列號以便對帳
+-- 序列號以連續區間（run-length）壓縮儲存於 SEQ_RUNS
+
+CREATE TABLE DEVICE_AR_SEQ_SET (
+    DEVICE_ID VARCHAR2(20 BYTE) NOT NULL,
+    BE_ID NUMBER(10,0) NOT NULL,
+    BUSINESS_DATE DATE NOT NULL,
+    EPOCH NUMBER(10,0) NOT NULL,
+    SEQ_RUNS BLOB,
+    PROCESSED_COUNT NUMBER(19,0) NOT NULL,
+    LAST_TXN_TIME TIMESTAMP (6) WITH TIME ZONE,
+    PREV_SEQ_RUNS BLOB,
+    PREV_LAST_TXN_TIME TIMESTAMP (6) WITH TIME ZONE,
+    LAST_UPDATED_TIME TIMESTAMP (6) WITH TIME ZONE NOT NULL,
+    CREATED_TIME TIMESTAMP (6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT PK_DEVICE_AR_SEQ_SET PRIMARY KEY (DEVICE_ID, BE_ID, BUSINESS_DATE)
+);
+
+-- 添加註釋
+COMMENT ON TABLE DEVICE_AR_SEQ_SET IS '設備已處理AR序列號集合表，用於重送檢測和缺號查詢';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.DEVICE_ID IS '設備ID';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.BE_ID IS '業務實體ID';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.BUSINESS_DATE IS '業務日期';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.EPOCH IS '設備重啟次數，重啟後序列號重新記錄';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.SEQ_RUNS IS '已處理序列號的連續區間（壓縮格式）';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.PROCESSED_COUNT IS '本輪已處理的序列號數量';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.LAST_TXN_TIME IS '本輪最後的交易時間';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.PREV_SEQ_RUNS IS '上一輪（重啟前）已處理序列號的連續區間，用於識別重啟前交易的延遲重送';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.PREV_LAST_TXN_TIME IS '上一輪最後的交易時間，不晚於此時間的交易屬於上一輪';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.LAST_UPDATED_TIME IS '最後更新時間';
+COMMENT ON COLUMN DEVICE_AR_SEQ_SET.CREATED_TIME IS '創建時間';
@@ -0,0 +1,224 @@
+package com.financial.recon.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financial.recon.service.DatabaseConcurrencyLimiter;
+import com.financial.recon.service.WorkerThreadFactory;
+import com.financial.recon.util.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 端到端負載測試：模擬設備群經 HTTP 呼叫 /v1/ar/auditRegister，資料庫為內嵌 H2（Oracle 模式）
+ * 吞吐量、p50/p99/p999 延遲及每筆交易的資料庫往返及語句數寫入 target/load-test-{platform|virtual}.json，
+ * 用於估算 Hikari 連線池大小及實例數，以及比較平台執行緒與虛擬執行緒模式（./run-tests.sh --thread-modes）。
+ * 參數以系統屬性調整，例如：
+ * mvn -B test -Pbenchmark -Dtest=AuditRegisterLoadTest -Dload.devices=500 -Dload.concurrency=32
+ *     -Dspring.datasource.hikari.maximum-pool-size=10 -Dspring.threads.virtual.enabled=true
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.com.financial.recon=WARN",
+        "logging.level.org.springframework.web=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@DisplayName("審計註冊端到端負載測試")
+class AuditRegisterLoadTest {
+
+    private static final int DEVICES = Integer.getInteger("load.devices", 200);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 2_000);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("load.warmupRequests", 200);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final int TXNS_PER_REQUEST = Integer.getInteger("load.txnsPerRequest", 5);
+    private static final double RESTART_RATE = Double.parseDouble(System.getProperty("load.restartRate", "0.01"));
+    private static final double CROSS_DATE_RATE = Double.parseDouble(System.getProperty("load.crossDateRate", "0.05"));
+    private static final long SEED = Long.getLong("load.seed", 42L);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DatabaseConcurrencyLimiter databaseConcurrencyLimiter;
+
+    @Autowired
+    private WorkerThreadFactory workerThreadFactory;
+
+    @Autowired
+    private Environment environment;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("模擬設備群持續上傳")
+    void deviceFleetLoad() throws Exception {
+        // Given: 要求虛擬執行緒模式但執行環境不支援時跳過，避免把平台執行緒的結果記為虛擬執行緒
+        Assumptions.assumeTrue(workerThreadFactory.isVirtual()
+                        || !environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false),
+                "spring.threads.virtual.enabled needs Java 21+");
+        // 每次執行使用不同的設備ID前綴，不受之前寫入的資料影響
+        String prefix = "LD" + Long.toString(System.currentTimeMillis() % 1_679_616, 36).toUpperCase();
+        SyntheticDeviceFleet fleet = new SyntheticDeviceFleet(prefix, DEVICES, RESTART_RATE, CROSS_DATE_RATE, SEED);
+        run(fleet, WARMUP_REQUESTS, null);
+
+        SqlStatementCounter.reset();
+        double roundTripsBefore = meterRegistry.get("recon.ar.db.round.trips").summary().totalAmount();
+        double txnsBefore = counter("recon.ar.transactions");
+        double restartsBefore = counter("recon.ar.device.restarts");
+        double crossDateBefore = counter("recon.ar.cross.date.transactions");
+        double failuresBefore = counter("recon.ar.failures");
+
+        // When
+        long[] latencies = new long[REQUESTS];
+        long start = System.nanoTime();
+        Tally tally = run(fleet, REQUESTS, latencies);
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        double txns = counter("recon.ar.transactions") - txnsBefore;
+        double roundTrips = meterRegistry.get("recon.ar.db.round.trips").summary().totalAmount() - roundTripsBefore;
+        Arrays.sort(latencies);
+        double seconds = elapsed / 1e9;
+        String mode = workerThreadFactory.isVirtual() ? "virtual" : "platform";
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threadMode", mode);
+        report.put("devices", DEVICES);
+        report.put("requests", REQUESTS);
+        report.put("txnsPerRequest", TXNS_PER_REQUEST);
+        report.put("concurrency", CONCURRENCY);
+        report.put("hikariMaximumPoolSize", environment.getProperty("spring.datasource.hikari.maximum-pool-size"));
+        report.put("elapsedSeconds", seconds);
+        report.put("requestsPerSecond", REQUESTS / seconds);
+        report.put("txnsPerSecond", txns / seconds);
+        report.put("latencyP50Millis", percentile(latencies, 0.50));
+        report.put("latencyP99Millis", percentile(latencies, 0.99));
+        report.put("latencyP999Millis", percentile(latencies, 0.999));
+        report.put("latencyMaxMillis", latencies[REQUESTS - 1] / 1e6);
+        report.put("dbRoundTripsPerTxn", roundTrips / txns);
+        report.put("selectsPerTxn", SqlStatementCounter.count("SELECT") / txns);
+        report.put("insertsPerTxn", SqlStatementCounter.count("INSERT") / txns);
+        report.put("updatesPerTxn", SqlStatementCounter.count("UPDATE") / txns);
+        report.put("restartsSent", tally.restarts.get());
+        report.put("restartTxnsDetected", counter("recon.ar.device.restarts") - restartsBefore);
+        report.put("crossDateRequestsSent", tally.crossDate.get());
+        report.put("crossDateTxns", counter("recon.ar.cross.date.transactions") - crossDateBefore);
+        report.put("failures", counter("recon.ar.failures") - failuresBefore);
+        report.put("dbConcurrency", databaseConcurrencyLimiter.getStats());
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(Path.of("target", "load-test-" + mode + ".json").toFile(), report);
+
+        assertEquals(REQUESTS, tally.ok.get(), "every request should be accepted: " + tally.errors);
+        assertEquals((double) REQUESTS * TXNS_PER_REQUEST, txns);
+        assertEquals(0, counter("recon.ar.failures") - failuresBefore);
+    }
+
+    /**
+     * 每個工作執行緒負責固定的一組設備並輪流送出，同一台設備的請求保持先後順序
+     */
+    private Tally run(SyntheticDeviceFleet fleet, int requests, long[] latencies) throws Exception {
+        Tally tally = new Tally();
+        int workers = Math.min(CONCURRENCY, fleet.size());
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        AtomicInteger issued = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int w = 0; w < workers; w++) {
+                int worker = w;
+                futures.add(executor.submit(() -> {
+                    int deviceIndex = worker;
+                    int index;
+                    while ((index = issued.getAndIncrement()) < requests) {
+                        SyntheticDeviceFleet.Batch batch = fleet.next(deviceIndex, TXNS_PER_REQUEST);
+                        long nanos = send(batch, tally);
+                        if (latencies != null) {
+                            latencies[index] = nanos;
+                        }
+                        deviceIndex += workers;
+                        if (deviceIndex >= fleet.size()) {
+                            deviceIndex = worker;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return tally;
+    }
+
+    private long send(SyntheticDeviceFleet.Batch batch, Tally tally) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(batch.getRequest());
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/ar/auditRegister"))
+                .header("Content-Type", "application/json")
+                .header("X-Client-Request-Identifier", "LOAD-" + tally.hashCode() + "-" + System.nanoTime())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        long nanos = System.nanoTime() - start;
+        if (response.statusCode() == 200) {
+            tally.ok.incrementAndGet();
+        } else if (tally.errors.size() < 10) {
+            tally.errors.add(response.statusCode() + " " + response.body());
+        }
+        if (batch.isRestarted()) {
+            tally.restarts.incrementAndGet();
+        }
+        if (batch.isCrossDate()) {
+            tally.crossDate.incrementAndGet();
+        }
+        return nanos;
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static class Tally {
+        final AtomicInteger ok = new AtomicInteger();
+        final AtomicInteger restarts = new AtomicInteger();
+        final AtomicInteger crossDate = new AtomicInteger();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    }
+}
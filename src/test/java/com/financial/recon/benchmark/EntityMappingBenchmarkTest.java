@@ -0,0 +1,165 @@
+package com.financial.recon.benchmark;
+
+import com.financial.recon.dto.AuditRegisterEntry;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.entity.MirrorAr;
+import com.financial.recon.entity.MirrorArDetail;
+import com.financial.recon.service.AuditRegisterEntityMapper;
+import com.financial.recon.service.RequestClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 交易轉實體的每筆配置量：原本的轉換邏輯（legacy）對比 AuditRegisterEntityMapper（current）
+ * 以 JMH GC profiler 的 gc.alloc.rate.norm 為每筆交易配置的位元組數；結果另存為 target/jmh-entity-mapping.json
+ * 執行方式：mvn -B test -Pbenchmark
+ */
+@Tag("benchmark")
+@DisplayName("實體轉換配置量基準測試")
+public class EntityMappingBenchmarkTest {
+
+    private static final int TRANSACTIONS = 100;
+    private static final int ENTRIES_PER_TRANSACTION = 4;
+    private static final String REFERENCE_ID = "0F3K9Z2M8Q1R7TX";
+    private static final String RESULT_FILE = "target/jmh-entity-mapping.json";
+
+    @Test
+    @DisplayName("比較每筆交易配置的位元組數")
+    void compareAllocationPerTransaction() throws RunnerException {
+        Map<String, Double> bytesPerTxn = new HashMap<>();
+        for (RunResult result : JmhBenchmarks.run(Mapping.class, RESULT_FILE)) {
+            bytesPerTxn.put(JmhBenchmarks.name(result), JmhBenchmarks.bytesPerOp(result));
+        }
+        assertTrue(bytesPerTxn.get("current") < bytesPerTxn.get("legacy"),
+                "current mapping should allocate less than legacy: " + bytesPerTxn);
+    }
+
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public static class Mapping {
+
+        private final AuditRegisterEntityMapper mapper = new AuditRegisterEntityMapper();
+        private List<AuditRegisterTransaction> txns;
+
+        @Setup
+        public void setUp() {
+            txns = JmhBenchmarks.transactions(TRANSACTIONS, ENTRIES_PER_TRANSACTION);
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(TRANSACTIONS)
+        public void current(Blackhole blackhole) {
+            RequestClock clock = RequestClock.snapshot();
+            for (AuditRegisterTransaction txn : txns) {
+                blackhole.consume(txn.getBusinessDate().equals(clock.today()));
+                blackhole.consume(mapper.toMirrorAr(txn, REFERENCE_ID, clock));
+                int entryIndex = 1;
+                for (AuditRegisterEntry entry : txn.getAuditRegisterEntries()) {
+                    blackhole.consume(mapper.toMirrorArDetail(entry, REFERENCE_ID, entryIndex++, clock));
+                }
+            }
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(TRANSACTIONS)
+        public void legacy(Blackhole blackhole) {
+            for (AuditRegisterTransaction txn : txns) {
+                blackhole.consume(txn.getBusinessDate().equals(LocalDate.now()));
+                blackhole.consume(legacyMirrorAr(txn));
+                int entryIndex = 1;
+                for (AuditRegisterEntry entry : txn.getAuditRegisterEntries()) {
+                    blackhole.consume(legacyMirrorArDetail(entry, entryIndex++));
+                }
+            }
+        }
+    }
+
+    // 以下為重構前 AuditRegisterService 的轉換邏輯，作為比較基準
+
+    private static MirrorAr legacyMirrorAr(AuditRegisterTransaction txn) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return MirrorAr.builder()
+                .referenceId(REFERENCE_ID)
+                .refRecordId("001")
+                .refTotalCount(txn.getAuditRegisterEntries().size())
+                .txnType(legacyTxnType(txn.getTransactionType()))
+                .txnSubtype(legacyTxnSubtype(txn.getTransactionType()))
+                .endTxnTime(txn.getTransactionDateTime())
+                .udsn(String.format("%s-%d-%d", txn.getDeviceId(), txn.getAuditRegisterSeqNum(),
+                        System.currentTimeMillis()))
+                .deviceId(txn.getDeviceId())
+                .hardwareType(txn.getDeviceTypeId())
+                .serviceMode(txn.getDeviceSpecialMode())
+                .beId(txn.getBeId())
+                .auditRegisterSeqNum(txn.getAuditRegisterSeqNum())
+                .businessDate(txn.getBusinessDate() != null ?
+                        txn.getBusinessDate().atStartOfDay().atOffset(OffsetDateTime.now().getOffset()) : null)
+                .settlementDate(now)
+                .receivedTime(now)
+                .lastUpdatedTime(now)
+                .physicalDeviceId(txn.getEquipmentId())
+                .build();
+    }
+
+    private static MirrorArDetail legacyMirrorArDetail(AuditRegisterEntry entry, int entryIndex) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return MirrorArDetail.builder()
+                .referenceId(REFERENCE_ID)
+                .refRecordId("001")
+                .arEntryId(String.format("%03d", entryIndex))
+                .arId(entry.getArTypeIdentifier())
+                .idType(legacyIdType(entry.getCardMediaTypeId()))
+                .count(entry.getCount() != null ? entry.getCount().longValue() : null)
+                .value(entry.getValueMinor() != null ? BigDecimal.valueOf(entry.getValueMinor() / 100.0) : null)
+                .lastUpdatedTime(now)
+                .build();
+    }
+
+    private static String legacyTxnType(String transactionType) {
+        if (transactionType != null && transactionType.length() >= 3) {
+            return transactionType.substring(0, 3);
+        }
+        return transactionType != null ? transactionType : "UNK";
+    }
+
+    private static String legacyTxnSubtype(String transactionType) {
+        if (transactionType != null && transactionType.length() >= 6) {
+            return transactionType.substring(3, 6);
+        }
+        return "000";
+    }
+
+    private static Integer legacyIdType(String cardMediaTypeId) {
+        if (cardMediaTypeId == null || cardMediaTypeId.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cardMediaTypeId);
+        } catch (NumberFormatException e) {
+            return Math.abs(cardMediaTypeId.hashCode() % 1000000);
+        }
+    }
+}
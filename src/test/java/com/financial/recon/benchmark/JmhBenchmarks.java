@@ -0,0 +1,74 @@
+package com.financial.recon.benchmark;
+
+import com.financial.recon.dto.AuditRegisterEntry;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.util.TestDataBuilder;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JMH 基準測試共用的輸入資料及執行設定
+ * 每個基準類別在單一 fork 中以相同的預熱及量測次數執行，附 GC profiler，結果以 JSON 寫入 target/
+ */
+public final class JmhBenchmarks {
+
+    private JmhBenchmarks() {
+    }
+
+    /**
+     * count 筆形狀與 TestDataBuilder 相同的交易，每筆 entriesPerTransaction 個條目；
+     * 額外的條目使用不同的 AR 類型，卡媒體類型ID 交錯為數字及非數字，兩種解析路徑都會經過
+     */
+    public static List<AuditRegisterTransaction> transactions(int count, int entriesPerTransaction) {
+        List<AuditRegisterTransaction> txns = TestDataBuilder.createBatchRequest(count).getAuditRegisterTxns();
+        for (AuditRegisterTransaction txn : txns) {
+            for (int i = 1; i < entriesPerTransaction; i++) {
+                AuditRegisterEntry entry = TestDataBuilder.createBasicEntry();
+                entry.setArTypeIdentifier("AR-TYPE-00" + (i + 1));
+                entry.setCardMediaTypeId(i % 2 == 0 ? "CARD-00" + i : String.valueOf(i));
+                txn.getAuditRegisterEntries().add(entry);
+            }
+        }
+        return txns;
+    }
+
+    /**
+     * 執行 benchmarks 類別中的所有 @Benchmark 方法，結果另存為 resultFile
+     */
+    public static Collection<RunResult> run(Class<?> benchmarks, String resultFile) throws RunnerException {
+        return new Runner(new OptionsBuilder()
+                .include(benchmarks.getName().replace("$", ".") + "\\.")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build()).run();
+    }
+
+    /**
+     * 基準方法名稱（不含類別）
+     */
+    public static String name(RunResult result) {
+        String benchmark = result.getParams().getBenchmark();
+        return benchmark.substring(benchmark.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * 每個操作配置的位元組數（GC profiler 的 gc.alloc.rate.norm）
+     */
+    public static double bytesPerOp(RunResult result) {
+        return result.getSecondaryResults().get("gc.alloc.rate.norm").getScore();
+    }
+}
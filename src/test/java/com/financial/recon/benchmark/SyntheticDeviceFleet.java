@@ -0,0 +1,132 @@
+package com.financial.recon.benchmark;
+
+import com.financial.recon.dto.AuditRegisterEntry;
+import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 模擬設備群的請求產生器
+ * 每台設備各自遞增 AR 序列號及交易時間；按機率模擬設備重啟（序列號從 1 重新開始、交易時間繼續往後）
+ * 及跨日補傳（前一業務日的未上傳交易，使用該日自己的序列號）。條目數、AR 類型及卡媒體類型按固定比例混合。
+ * 同一個 seed 產生相同的請求序列，可重複執行比較
+ */
+class SyntheticDeviceFleet {
+
+    private static final String[] AR_TYPES = {
+            "AR-TYPE-001", "AR-TYPE-002", "AR-TYPE-003", "AR-TYPE-004",
+            "AR-TYPE-005", "AR-TYPE-006", "AR-TYPE-007", "AR-TYPE-008"};
+    private static final String[] CARD_MEDIA_TYPES = {"1", "1", "2", "3", "CARD-004", "CARD-005"};
+    // 每筆交易的條目數分佈：多數 1~3 條，少數 4~6 條
+    private static final int[] ENTRY_COUNTS = {1, 1, 1, 2, 2, 2, 3, 3, 4, 6};
+    private static final String[] TRANSACTION_TYPES = {"AUD001", "AUD002", "SAL001", "RFD001"};
+
+    private final Device[] devices;
+    private final double restartRate;
+    private final double crossDateRate;
+    private final LocalDate today = LocalDate.now();
+
+    SyntheticDeviceFleet(String deviceIdPrefix, int deviceCount, double restartRate, double crossDateRate, long seed) {
+        this.restartRate = restartRate;
+        this.crossDateRate = crossDateRate;
+        Random seeds = new Random(seed);
+        devices = new Device[deviceCount];
+        OffsetDateTime startOfToday = today.atStartOfDay().atOffset(ZoneOffset.UTC);
+        for (int i = 0; i < deviceCount; i++) {
+            devices[i] = new Device(String.format("%s-%04d", deviceIdPrefix, i), 1 + i % 3,
+                    startOfToday, new Random(seeds.nextLong()));
+        }
+    }
+
+    int size() {
+        return devices.length;
+    }
+
+    /**
+     * 為指定設備產生下一個請求；同一台設備的請求須依序產生及送出
+     */
+    Batch next(int deviceIndex, int txnsPerRequest) {
+        Device device = devices[deviceIndex];
+        Random random = device.random;
+        boolean crossDate = random.nextDouble() < crossDateRate;
+        boolean restarted = !crossDate && device.todaySeqNum > 1 && random.nextDouble() < restartRate;
+        if (restarted) {
+            device.todaySeqNum = 1;
+        }
+
+        List<AuditRegisterTransaction> txns = new ArrayList<>(txnsPerRequest);
+        for (int i = 0; i < txnsPerRequest; i++) {
+            AuditRegisterTransaction txn = new AuditRegisterTransaction();
+            if (crossDate) {
+                device.yesterdayTime = device.yesterdayTime.plusSeconds(1 + random.nextInt(30));
+                txn.setBusinessDate(today.minusDays(1));
+                txn.setTransactionDateTime(device.yesterdayTime);
+                txn.setAuditRegisterSeqNum(device.yesterdaySeqNum++);
+            } else {
+                device.todayTime = device.todayTime.plusSeconds(1 + random.nextInt(30));
+                txn.setBusinessDate(today);
+                txn.setTransactionDateTime(device.todayTime);
+                txn.setAuditRegisterSeqNum(device.todaySeqNum++);
+            }
+            txn.setTransactionType(TRANSACTION_TYPES[random.nextInt(TRANSACTION_TYPES.length)]);
+            txn.setDeviceId(device.deviceId);
+            txn.setEquipmentId("EQ-" + device.deviceId.substring(device.deviceId.length() - 4));
+            txn.setBeId(device.beId);
+            txn.setDeviceTypeId("TYPE-001");
+            txn.setDeviceSpecialMode("NOR");
+            txn.setServiceId("SERVICE-001");
+            txn.setAuditRegisterEntries(entries(random));
+            txns.add(txn);
+        }
+        AuditRegisterRequest request = new AuditRegisterRequest();
+        request.setAuditRegisterTxns(txns);
+        return new Batch(request, restarted, crossDate);
+    }
+
+    private static List<AuditRegisterEntry> entries(Random random) {
+        int count = ENTRY_COUNTS[random.nextInt(ENTRY_COUNTS.length)];
+        List<AuditRegisterEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AuditRegisterEntry entry = new AuditRegisterEntry();
+            entry.setArTypeIdentifier(AR_TYPES[random.nextInt(AR_TYPES.length)]);
+            entry.setCardMediaTypeId(CARD_MEDIA_TYPES[random.nextInt(CARD_MEDIA_TYPES.length)]);
+            entry.setCount(1 + random.nextInt(20));
+            entry.setValueMinor((long) random.nextInt(500_000));
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    @Value
+    static class Batch {
+        AuditRegisterRequest request;
+        boolean restarted;
+        boolean crossDate;
+    }
+
+    private static class Device {
+        final String deviceId;
+        final int beId;
+        final Random random;
+        int todaySeqNum = 1;
+        int yesterdaySeqNum = 1;
+        OffsetDateTime todayTime;
+        OffsetDateTime yesterdayTime;
+
+        Device(String deviceId, int beId, OffsetDateTime startOfToday, Random random) {
+            this.deviceId = deviceId;
+            this.beId = beId;
+            this.random = random;
+            this.todayTime = startOfToday;
+            // 前一業務日的補傳交易從當日傍晚開始
+            this.yesterdayTime = startOfToday.minusHours(6);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.financial.recon.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.util.TestDataBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON、CBOR 與 Smile 傳輸格式比較：以測試資料的各種請求比較內容大小及解析時間
+ * 執行方式：mvn -B test -Pbenchmark
+ */
+@Tag("benchmark")
+@DisplayName("傳輸格式基準測試")
+class WireFormatBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 5_000;
+    private static final int MEASURED_ITERATIONS = 20_000;
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+
+    @Test
+    @DisplayName("比較內容大小及解析時間")
+    void compareWireFormats() throws IOException {
+        Map<String, AuditRegisterRequest> requests = new LinkedHashMap<>();
+        requests.put("basic", TestDataBuilder.createBasicRequest());
+        requests.put("multiEntry", TestDataBuilder.createMultiEntryRequest());
+        requests.put("crossDate", TestDataBuilder.createCrossDateRequest());
+        requests.put("batch100", TestDataBuilder.createBatchRequest(100));
+
+        System.out.printf("%-12s %-6s %10s %7s %10s%n", "request", "format", "bytes", "ofJson", "parseUs");
+        for (Map.Entry<String, AuditRegisterRequest> entry : requests.entrySet()) {
+            byte[] json = jsonMapper.writeValueAsBytes(entry.getValue());
+            report(entry.getKey(), "json", jsonMapper, json, json.length);
+            report(entry.getKey(), "cbor", cborMapper, cborMapper.writeValueAsBytes(entry.getValue()), json.length);
+            report(entry.getKey(), "smile", smileMapper, smileMapper.writeValueAsBytes(entry.getValue()), json.length);
+        }
+    }
+
+    private void report(String request, String format, ObjectMapper mapper, byte[] payload, int jsonLength)
+            throws IOException {
+        System.out.printf("%-12s %-6s %10d %6.0f%% %10.2f%n", request, format,
+                payload.length, 100.0 * payload.length / jsonLength, parseMicros(mapper, payload));
+    }
+
+    private double parseMicros(ObjectMapper mapper, byte[] payload) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.readValue(payload, AuditRegisterRequest.class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            mapper.readValue(payload, AuditRegisterRequest.class);
+        }
+        return (System.nanoTime() - start) / 1e3 / MEASURED_ITERATIONS;
+    }
+}
@@ -1,9 +1,14 @@
 package com.financial.recon.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.financial.recon.config.AuditRegisterProperties;
 import com.financial.recon.dto.AuditRegisterRequest;
 import com.financial.recon.dto.AuditRegisterResponse;
+import com.financial.recon.dto.AuditRegisterTicket;
 import com.financial.recon.util.TestDataBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,12 +16,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -33,6 +42,12 @@ class AuditRegisterControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AuditRegisterProperties auditRegisterProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         // 測試資料會在每個測試方法中創建
@@ -230,5 +245,340 @@ class AuditRegisterControllerTest {
                         .content(requestJson))
                 .andExpect(status().isUnsupportedMediaType());
     }
-}
 
+    @Test
+    @DisplayName("測試非同步受理 - 應該立即返回 202 及受理單，處理完成後可查詢結果")
+    void testAsyncAuditRegister() throws Exception {
+        // Given - 背景執行緒在獨立的資料庫交易中提交，使用專屬設備避免影響其他測試
+        AuditRegisterRequest request = TestDataBuilder.createBasicRequest();
+        request.getAuditRegisterTxns().get(0).setDeviceId("DEVICE-ASYNC");
+        String requestJson = objectMapper.writeValueAsString(request);
+
+        // When
+        MvcResult result = mockMvc.perform(post("/v1/ar/auditRegister/async")
+                        .header("X-Client-Request-Identifier", "TEST-CLIENT-ASYNC")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.ticketId").exists())
+                .andExpect(jsonPath("$.transactionCount").value(1))
+                .andReturn();
+        String ticketId = objectMapper.readValue(
+                result.getResponse().getContentAsString(), AuditRegisterTicket.class).getTicketId();
+
+        // Then
+        AuditRegisterTicket ticket = null;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            String body = mockMvc.perform(get("/v1/ar/auditRegister/tickets/" + ticketId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ticket = objectMapper.readValue(body, AuditRegisterTicket.class);
+            if ("COMPLETED".equals(ticket.getStatus())) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertNotNull(ticket);
+        assertEquals("COMPLETED", ticket.getStatus());
+        assertEquals("TEST-CLIENT-ASYNC", ticket.getClientRequestId());
+        assertEquals("SUCCESS", ticket.getResult().getResponseCode());
+    }
+
+    @Test
+    @DisplayName("測試查詢不存在的受理單 - 應該返回 404")
+    void testUnknownTicket() throws Exception {
+        mockMvc.perform(get("/v1/ar/auditRegister/tickets/UNKNOWN"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("測試非同步受理的驗證錯誤 - 應該同步返回 400")
+    void testAsyncValidationError() throws Exception {
+        // Given
+        AuditRegisterRequest request = TestDataBuilder.createInvalidRequest();
+        String requestJson = objectMapper.writeValueAsString(request);
+
+        // When & Then
+        mockMvc.perform(post("/v1/ar/auditRegister/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.responseCode").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    @DisplayName("測試串流處理 - 應該逐段處理所有交易並返回成功響應")
+    void testStreamAuditRegister() throws Exception {
+        // Given - 每 2 筆處理一次
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(5);
+        String requestJson = objectMapper.writeValueAsString(request);
+        int originalChunkSize = auditRegisterProperties.getStreaming().getChunkSize();
+        auditRegisterProperties.getStreaming().setChunkSize(2);
+
+        try {
+            // When & Then
+            mockMvc.perform(post("/v1/ar/auditRegister/stream")
+                            .header("X-Client-Request-Identifier", "TEST-CLIENT-STREAM")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(requestJson))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Client-Request-Identifier", "TEST-CLIENT-STREAM"))
+                    .andExpect(jsonPath("$.responseCode").value("SUCCESS"))
+                    .andExpect(jsonPath("$.responseMessage").value("Successfully processed 5 transaction(s)"));
+        } finally {
+            auditRegisterProperties.getStreaming().setChunkSize(originalChunkSize);
+        }
+    }
+
+    @Test
+    @DisplayName("測試串流處理的逐筆驗證 - 無效交易應該被拒絕，其他交易照常處理")
+    void testStreamAuditRegisterWithInvalidTransaction() throws Exception {
+        // Given
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(3);
+        request.getAuditRegisterTxns().get(1).setDeviceId(null);
+        String requestJson = objectMapper.writeValueAsString(request);
+
+        // When & Then
+        mockMvc.perform(post("/v1/ar/auditRegister/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.responseCode").value("PARTIAL_SUCCESS"))
+                .andExpect(jsonPath("$.responseMessage").value("Processed 2 success, 1 failure(s)"))
+                .andExpect(jsonPath("$.errors[0]").value("auditRegisterTxns[1].deviceId: deviceId is required"));
+    }
+
+    @Test
+    @DisplayName("測試串流處理的欄位型別錯誤 - 只跳過該筆交易，之後的交易照常處理")
+    void testStreamAuditRegisterWithMistypedField() throws Exception {
+        // Given - 第二筆交易的序列號不是數字
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(3);
+        String requestJson = objectMapper.writeValueAsString(request)
+                .replace("\"auditRegisterSeqNum\":2", "\"auditRegisterSeqNum\":\"two\"");
+
+        // When & Then
+        mockMvc.perform(post("/v1/ar/auditRegister/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.responseCode").value("PARTIAL_SUCCESS"))
+                .andExpect(jsonPath("$.responseMessage").value("Processed 2 success, 1 failure(s)"))
+                .andExpect(jsonPath("$.errors[0]").value(startsWith("auditRegisterTxns[1].auditRegisterSeqNum: ")));
+    }
+
+    @Test
+    @DisplayName("測試串流處理的截斷內容 - 已讀到的交易應該被處理並回報格式錯誤")
+    void testStreamAuditRegisterTruncatedBody() throws Exception {
+        // Given - 第三筆交易只傳了一半
+        String requestJson = objectMapper.writeValueAsString(TestDataBuilder.createBatchRequest(3));
+        String truncated = requestJson.substring(0, requestJson.lastIndexOf("{\"transactionType\"") + 20);
+
+        // When & Then
+        mockMvc.perform(post("/v1/ar/auditRegister/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(truncated))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.responseCode").value("PARTIAL_SUCCESS"))
+                .andExpect(jsonPath("$.responseMessage").value("Processed 2 success, 0 failure(s)"))
+                .andExpect(jsonPath("$.errors[0]").value(startsWith("Malformed request body")));
+    }
+
+    @Test
+    @DisplayName("測試串流處理的空交易列表 - 應該返回驗證錯誤")
+    void testStreamAuditRegisterEmpty() throws Exception {
+        mockMvc.perform(post("/v1/ar/auditRegister/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"auditRegisterTxns\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.responseCode").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    @DisplayName("測試 NDJSON 批量上傳 - 應該逐行回報無效的行，其他行照常處理")
+    void testBulkNdjsonUpload() throws Exception {
+        // Given - 第 2 行無法解析，第 3 行缺少 deviceId，第 4 行為空行
+        AuditRegisterRequest batch = TestDataBuilder.createBatchRequest(3);
+        batch.getAuditRegisterTxns().get(1).setDeviceId(null);
+        String ndjson = String.join("\n",
+                objectMapper.writeValueAsString(batch.getAuditRegisterTxns().get(0)),
+                "{ not json",
+                objectMapper.writeValueAsString(batch.getAuditRegisterTxns().get(1)),
+                "",
+                objectMapper.writeValueAsString(batch.getAuditRegisterTxns().get(2))) + "\n";
+
+        // When & Then
+        mockMvc.perform(post("/v1/ar/auditRegister/bulk")
+                        .header("X-Client-Request-Identifier", "TEST-CLIENT-BULK")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.responseCode").value("PARTIAL_SUCCESS"))
+                .andExpect(jsonPath("$.totalLines").value(4))
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.invalid").value(2))
+                .andExpect(jsonPath("$.issues.length()").value(2))
+                .andExpect(jsonPath("$.issues[0].line").value(2))
+                .andExpect(jsonPath("$.issues[0].status").value("INVALID"))
+                .andExpect(jsonPath("$.issues[1].line").value(3))
+                .andExpect(jsonPath("$.issues[1].error").value("deviceId: deviceId is required"));
+    }
+
+    @Test
+    @DisplayName("測試 NDJSON 批量重送 - 已處理的交易應該計為重送")
+    void testBulkNdjsonReplay() throws Exception {
+        // Given
+        AuditRegisterRequest batch = TestDataBuilder.createBatchRequest(2);
+        StringBuilder ndjson = new StringBuilder();
+        for (var txn : batch.getAuditRegisterTxns()) {
+            ndjson.append(objectMapper.writeValueAsString(txn)).append('\n');
+        }
+        mockMvc.perform(post("/v1/ar/auditRegister/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2));
+
+        // When & Then
+        mockMvc.perform(post("/v1/ar/auditRegister/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responseCode").value("SUCCESS"))
+                .andExpect(jsonPath("$.accepted").value(0))
+                .andExpect(jsonPath("$.duplicates").value(2))
+                .andExpect(jsonPath("$.issues").isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試 CBOR 請求 - 應該與 JSON 請求得到相同的處理結果")
+    void testCborAuditRegister() throws Exception {
+        // Given
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        AuditRegisterRequest request = TestDataBuilder.createMultiEntryRequest();
+        byte[] cbor = cborMapper.writeValueAsBytes(request);
+        assertTrue(cbor.length < objectMapper.writeValueAsBytes(request).length);
+
+        // When
+        MvcResult result = mockMvc.perform(post("/v1/ar/auditRegister")
+                        .header("X-Client-Request-Identifier", "TEST-CLIENT-CBOR")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Then
+        AuditRegisterResponse response = cborMapper.readValue(
+                result.getResponse().getContentAsByteArray(), AuditRegisterResponse.class);
+        assertEquals("SUCCESS", response.getResponseCode());
+    }
+
+    @Test
+    @DisplayName("測試 Smile 請求 - 應該依 Content-Type 解析並以 JSON 響應")
+    void testSmileAuditRegister() throws Exception {
+        // Given
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(3);
+        byte[] smile = smileMapper.writeValueAsBytes(request);
+        assertTrue(smile.length < objectMapper.writeValueAsBytes(request).length);
+
+        // When & Then
+        mockMvc.perform(post("/v1/ar/auditRegister")
+                        .contentType("application/x-jackson-smile")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(smile))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responseCode").value("SUCCESS"))
+                .andExpect(jsonPath("$.responseMessage").value("Successfully processed 3 transaction(s)"));
+    }
+
+    @Test
+    @DisplayName("測試相同請求識別碼的重試 - 應該直接返回首次處理的響應")
+    void testRetryWithSameClientRequestId() throws Exception {
+        // Given
+        String requestJson = objectMapper.writeValueAsString(TestDataBuilder.createBasicRequest());
+        mockMvc.perform(post("/v1/ar/auditRegister")
+                        .header("X-Client-Request-Identifier", "TEST-CLIENT-RETRY")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk());
+
+        // When & Then - 重新處理時會被識別為重送交易；直接返回保存的響應則與首次相同
+        mockMvc.perform(post("/v1/ar/auditRegister")
+                        .header("X-Client-Request-Identifier", "TEST-CLIENT-RETRY")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responseCode").value("SUCCESS"))
+                .andExpect(jsonPath("$.responseMessage").value("Successfully processed 1 transaction(s)"));
+    }
+
+    @Test
+    @DisplayName("測試請求識別碼被用於不同請求 - 應該返回 409")
+    void testClientRequestIdReusedForDifferentRequest() throws Exception {
+        // Given
+        mockMvc.perform(post("/v1/ar/auditRegister")
+                        .header("X-Client-Request-Identifier", "TEST-CLIENT-REUSED")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TestDataBuilder.createBasicRequest())))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(post("/v1/ar/auditRegister")
+                        .header("X-Client-Request-Identifier", "TEST-CLIENT-REUSED")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TestDataBuilder.createBatchRequest(2))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.responseCode").value("IDEMPOTENCY_CONFLICT"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("測試處理請求後應該記錄各階段耗時、計數及資料庫往返次數")
+    void testRequestRecordsMetrics() throws Exception {
+        // Given - 不在測試交易內執行：往返次數只計算處理期間取得的連線；使用獨立的設備ID，提交的資料不影響其他測試
+        double transactionsBefore = meterRegistry.get("recon.ar.transactions").counter().count();
+        double entriesBefore = meterRegistry.get("recon.ar.entries").counter().count();
+        long bindingBefore = meterRegistry.get("recon.ar.stage").tag("stage", "binding").timer().count();
+        long validationBefore = meterRegistry.get("recon.ar.stage").tag("stage", "validation").timer().count();
+        long roundTripsBefore = meterRegistry.get("recon.ar.db.round.trips").summary().count();
+        double roundTripsTotalBefore = meterRegistry.get("recon.ar.db.round.trips").summary().totalAmount();
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(3);
+        request.getAuditRegisterTxns().forEach(txn -> txn.setDeviceId("METRICS-" + txn.getDeviceId()));
+
+        // When
+        mockMvc.perform(post("/v1/ar/auditRegister")
+                        .header("X-Client-Request-Identifier", "TEST-CLIENT-METRICS")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        // Then
+        int entryCount = request.getAuditRegisterTxns().stream()
+                .mapToInt(txn -> txn.getAuditRegisterEntries().size()).sum();
+        assertEquals(3, meterRegistry.get("recon.ar.transactions").counter().count() - transactionsBefore);
+        assertEquals(entryCount, meterRegistry.get("recon.ar.entries").counter().count() - entriesBefore);
+        assertEquals(bindingBefore + 1,
+                meterRegistry.get("recon.ar.stage").tag("stage", "binding").timer().count());
+        assertEquals(validationBefore + 1,
+                meterRegistry.get("recon.ar.stage").tag("stage", "validation").timer().count());
+        for (String stage : new String[]{"seq_num_load", "summary_update", "seq_tracking_save", "mirror_insert",
+                "commit"}) {
+            assertTrue(meterRegistry.get("recon.ar.stage").tag("stage", stage).timer().count() > 0, stage);
+        }
+        assertEquals(roundTripsBefore + 1, meterRegistry.get("recon.ar.db.round.trips").summary().count());
+        assertTrue(meterRegistry.get("recon.ar.db.round.trips").summary().totalAmount() > roundTripsTotalBefore);
+    }
+
+    @Test
+    @DisplayName("測試 JFR 錄製端點預設不開放 - 應該返回 404")
+    void testFlightRecordingDisabledByDefault() throws Exception {
+        mockMvc.perform(post("/v1/ar/admin/flightRecording/start"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/v1/ar/admin/flightRecording/download"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,74 @@
+package com.financial.recon.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("金額最小單位轉換測試")
+class MinorUnitAmountDeserializerTest {
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    @DisplayName("測試請求金額直接轉為分，不經過 double")
+    void testAmountsParseToMinorUnits() throws IOException {
+        assertEquals(100050L, parse("1000.50"));
+        assertEquals(100050L, parse("1000.5"));
+        assertEquals(50000L, parse("500"));
+        assertEquals(10L, parse("0.1"));
+        assertEquals(-1L, parse("-0.01"));
+        assertEquals(2L, parse("\"0.02\""));
+        assertEquals(9_007_199_254_740_993L, parse("90071992547409.93"));
+        assertNull(parse("null"));
+    }
+
+    @Test
+    @DisplayName("測試與整分只差 double 殘差的金額應該取該整分")
+    void testDoubleNoiseIsTolerated() throws IOException {
+        assertEquals(30L, parse("0.30000000000000004"));
+        assertEquals(100L, parse("0.99999999999999989"));
+        assertEquals(-30L, parse("-0.30000000000000004"));
+    }
+
+    @Test
+    @DisplayName("測試小數超過兩位、非數字或超出範圍的金額應該被拒絕，不做捨入")
+    void testInvalidAmountsAreRejected() {
+        assertThrows(InvalidFormatException.class, () -> parse("1.005"));
+        assertThrows(InvalidFormatException.class, () -> parse("1.015"));
+        assertThrows(InvalidFormatException.class, () -> parse("0.300001"));
+        assertThrows(InvalidFormatException.class, () -> parse("92233720368547758.08"));
+        assertThrows(InvalidFormatException.class, () -> parse("\"abc\""));
+    }
+
+    @Test
+    @DisplayName("測試 JSON、CBOR 與 Smile 序列化後往返結果一致")
+    void testRoundTripAcrossWireFormats() throws IOException {
+        AuditRegisterEntry entry = new AuditRegisterEntry();
+        entry.setArTypeIdentifier("AR-TYPE-001");
+        entry.setCount(1);
+        entry.setValueMinor(100050L);
+
+        assertTrue(jsonMapper.writeValueAsString(entry).contains("\"value\":1000.50"));
+        for (ObjectMapper mapper : new ObjectMapper[]{jsonMapper,
+                Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build(),
+                Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build()}) {
+            AuditRegisterEntry read = mapper.readValue(mapper.writeValueAsBytes(entry), AuditRegisterEntry.class);
+            assertEquals(100050L, read.getValueMinor());
+        }
+        assertEquals(0, new BigDecimal("1000.50").compareTo(MinorUnits.toDecimal(100050L)));
+    }
+
+    private Long parse(String value) throws IOException {
+        return jsonMapper.readValue("{\"arTypeIdentifier\":\"AR\",\"count\":1,\"value\":" + value + "}",
+                AuditRegisterEntry.class).getValueMinor();
+    }
+}
@@ -0,0 +1,60 @@
+package com.financial.recon.repository;
+
+import com.financial.recon.entity.DeviceArSeqSet;
+import com.financial.recon.entity.DeviceArSeqSetId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("設備序列號集合 Repository 測試")
+class DeviceArSeqSetRepositoryTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 1, 15);
+    private static final LocalDate DAY_2 = LocalDate.of(2024, 1, 16);
+
+    @Autowired
+    private DeviceArSeqSetRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        repository.flush();
+    }
+
+    @Test
+    @DisplayName("測試鎖定查詢 - 只返回確切的主鍵，不包含設備與日期的交叉組合")
+    void testFindForUpdateLocksOnlyExactKeys() {
+        // Given: 兩個設備在兩個日期都有記錄
+        repository.insertMissing(List.of(
+                new DeviceArSeqSetId("DEVICE-001", 1, DAY_1),
+                new DeviceArSeqSetId("DEVICE-001", 1, DAY_2),
+                new DeviceArSeqSetId("DEVICE-002", 1, DAY_1),
+                new DeviceArSeqSetId("DEVICE-002", 1, DAY_2)), OffsetDateTime.now());
+
+        // When
+        List<DeviceArSeqSet> rows = repository.findForUpdate(List.of(
+                new DeviceArSeqSetId("DEVICE-002", 1, DAY_1),
+                new DeviceArSeqSetId("DEVICE-001", 1, DAY_2)));
+
+        // Then: 按主鍵順序返回
+        assertEquals(List.of(
+                        new DeviceArSeqSetId("DEVICE-001", 1, DAY_2),
+                        new DeviceArSeqSetId("DEVICE-002", 1, DAY_1)),
+                rows.stream()
+                        .map(row -> new DeviceArSeqSetId(row.getDeviceId(), row.getBeId(), row.getBusinessDate()))
+                        .toList());
+    }
+}
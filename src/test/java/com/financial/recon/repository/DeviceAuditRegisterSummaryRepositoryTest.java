@@ -0,0 +1,112 @@
+package com.financial.recon.repository;
+
+import com.financial.recon.dto.MinorUnits;
+import com.financial.recon.entity.DeviceAuditRegisterSummary;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryDelta;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryId;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("設備審計註冊摘要 Repository 測試")
+class DeviceAuditRegisterSummaryRepositoryTest {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2024, 1, 15);
+
+    @Autowired
+    private DeviceAuditRegisterSummaryRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        repository.flush();
+    }
+
+    @Test
+    @DisplayName("測試單筆 MERGE - 不存在時插入，存在時在 SQL 內累加")
+    void testUpsertInsertsThenAccumulates() {
+        // When
+        repository.upsert("DEVICE-001", 1, BUSINESS_DATE, "AR-TYPE-001", "CARD-001",
+                10L, new BigDecimal("1000.50"), 1, OffsetDateTime.now());
+        repository.upsert("DEVICE-001", 1, BUSINESS_DATE, "AR-TYPE-001", "CARD-001",
+                15L, new BigDecimal("1500.00"), 2, OffsetDateTime.now());
+
+        // Then
+        DeviceAuditRegisterSummary summary = find("DEVICE-001", "AR-TYPE-001", "CARD-001");
+        assertEquals(25L, summary.getTotalCount());
+        assertEquals(0, new BigDecimal("2500.50").compareTo(summary.getTotalValue()));
+        assertEquals(2, summary.getLastArSeqNum());
+    }
+
+    @Test
+    @DisplayName("測試 MERGE 不應該調低 LAST_AR_SEQ_NUM - 較舊的增量只累加計數和金額")
+    void testUpsertKeepsHighestSeqNum() {
+        // When
+        repository.upsert("DEVICE-001", 1, BUSINESS_DATE, "AR-TYPE-001", "CARD-001",
+                10L, new BigDecimal("100.00"), 10, OffsetDateTime.now());
+        repository.upsertAll(List.of(
+                delta("DEVICE-001", "AR-TYPE-001", "CARD-001", 5L, "50.00", 5)), OffsetDateTime.now());
+
+        // Then
+        DeviceAuditRegisterSummary summary = find("DEVICE-001", "AR-TYPE-001", "CARD-001");
+        assertEquals(15L, summary.getTotalCount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(summary.getTotalValue()));
+        assertEquals(10, summary.getLastArSeqNum());
+    }
+
+    @Test
+    @DisplayName("測試批次 MERGE - 一次呼叫處理多個主鍵")
+    void testUpsertAllHandlesManyKeys() {
+        // Given
+        repository.upsert("DEVICE-001", 1, BUSINESS_DATE, "AR-TYPE-001", "CARD-001",
+                10L, new BigDecimal("100.00"), 1, OffsetDateTime.now());
+
+        // When
+        repository.upsertAll(List.of(
+                delta("DEVICE-001", "AR-TYPE-001", "CARD-001", 5L, "50.00", 2),
+                delta("DEVICE-001", "AR-TYPE-002", "CARD-002", 3L, "30.00", 2),
+                delta("DEVICE-002", "AR-TYPE-001", "CARD-001", 7L, "70.00", 9)), OffsetDateTime.now());
+
+        // Then
+        assertEquals(3, repository.count());
+        assertEquals(15L, find("DEVICE-001", "AR-TYPE-001", "CARD-001").getTotalCount());
+        assertEquals(3L, find("DEVICE-001", "AR-TYPE-002", "CARD-002").getTotalCount());
+        DeviceAuditRegisterSummary other = find("DEVICE-002", "AR-TYPE-001", "CARD-001");
+        assertEquals(7L, other.getTotalCount());
+        assertEquals(9, other.getLastArSeqNum());
+    }
+
+    private DeviceAuditRegisterSummaryDelta delta(String deviceId, String arType, String cardMediaType,
+                                                  long count, String value, int seqNum) {
+        return DeviceAuditRegisterSummaryDelta.builder()
+                .id(new DeviceAuditRegisterSummaryId(deviceId, 1, BUSINESS_DATE, arType, cardMediaType))
+                .countDelta(count)
+                .valueDeltaMinor(MinorUnits.fromDecimal(new BigDecimal(value)))
+                .lastArSeqNum(seqNum)
+                .build();
+    }
+
+    private DeviceAuditRegisterSummary find(String deviceId, String arType, String cardMediaType) {
+        entityManager.clear();
+        return repository.findByDeviceIdAndBeIdAndBusinessDateAndArTypeIdentifierAndCardMediaTypeId(
+                deviceId, 1, BUSINESS_DATE, arType, cardMediaType).orElseThrow();
+    }
+}
@@ -0,0 +1,98 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.entity.MirrorAr;
+import com.financial.recon.entity.MirrorArDetail;
+import com.financial.recon.util.TestDataBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("交易實體轉換測試")
+class AuditRegisterEntityMapperTest {
+
+    private final AuditRegisterEntityMapper mapper = new AuditRegisterEntityMapper();
+    private final RequestClock clock = RequestClock.of(
+            Clock.fixed(Instant.parse("2024-01-16T08:30:00Z"), ZoneOffset.ofHours(8)));
+
+    @Test
+    @DisplayName("測試同一請求的所有列使用同一時鐘快照")
+    void testRowsShareClockSnapshot() {
+        // Given
+        AuditRegisterTransaction txn = TestDataBuilder.createBasicTransaction();
+        txn.setBusinessDate(LocalDate.of(2024, 1, 15));
+
+        // When
+        MirrorAr mirrorAr = mapper.toMirrorAr(txn, "REF-1", clock);
+        MirrorArDetail detail = mapper.toMirrorArDetail(txn.getAuditRegisterEntries().get(0), "REF-1", 1, clock);
+
+        // Then
+        assertSame(clock.now(), mirrorAr.getReceivedTime());
+        assertSame(clock.now(), detail.getLastUpdatedTime());
+        assertEquals("2024-01-15T00:00+08:00", mirrorAr.getBusinessDate().toString());
+        assertSame(mirrorAr.getBusinessDate(), clock.startOf(LocalDate.of(2024, 1, 15)));
+        assertEquals(txn.getDeviceId() + "-" + txn.getAuditRegisterSeqNum() + "-" + clock.epochMillis() + "-0",
+                mirrorAr.getUdsn());
+    }
+
+    @Test
+    @DisplayName("測試同一請求內相同設備及序列號的交易應該得到不同的 UDSN")
+    void testUdsnIsUniqueWithinRequest() {
+        // Given
+        AuditRegisterTransaction txn = TestDataBuilder.createBasicTransaction();
+        AuditRegisterTransaction resent = TestDataBuilder.createBasicTransaction();
+
+        // When
+        MirrorAr first = mapper.toMirrorAr(txn, "REF-1", clock);
+        MirrorAr second = mapper.toMirrorAr(resent, "REF-2", clock);
+
+        // Then
+        assertEquals(txn.getDeviceId(), resent.getDeviceId());
+        assertEquals(txn.getAuditRegisterSeqNum(), resent.getAuditRegisterSeqNum());
+        assertNotEquals(first.getUdsn(), second.getUdsn());
+    }
+
+    @Test
+    @DisplayName("測試明細序號與 %03d 格式一致")
+    void testEntryIdMatchesLegacyFormat() {
+        for (int i : new int[]{1, 9, 10, 99, 100, 999, 1000, 12345}) {
+            assertEquals(String.format("%03d", i), AuditRegisterEntityMapper.entryId(i));
+        }
+    }
+
+    @Test
+    @DisplayName("測試交易類型拆分結果與原邏輯一致且被重用")
+    void testTxnTypeSplit() {
+        assertEquals("PUR", mapper.splitTxnType("PUR001").getType());
+        assertEquals("001", mapper.splitTxnType("PUR001").getSubtype());
+        assertSame(mapper.splitTxnType("PUR001"), mapper.splitTxnType("PUR001"));
+        assertEquals("REF", mapper.splitTxnType("REF").getType());
+        assertEquals("000", mapper.splitTxnType("REF").getSubtype());
+        assertEquals("AB", mapper.splitTxnType("AB").getType());
+        assertEquals("UNK", mapper.splitTxnType(null).getType());
+        assertEquals("000", mapper.splitTxnType(null).getSubtype());
+    }
+
+    @Test
+    @DisplayName("測試卡媒體類型解析結果與 Integer.parseInt 後備邏輯一致")
+    void testParseIdTypeMatchesLegacy() {
+        for (String value : new String[]{"2", "007", "+5", "-12", "CARD-001", "12A", "-", "+",
+                "2147483647", "2147483648", "-2147483648", "-2147483649", "99999999999999999999"}) {
+            int expected;
+            try {
+                expected = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                expected = Math.abs(value.hashCode() % 1000000);
+            }
+            assertEquals(expected, AuditRegisterEntityMapper.parseIdType(value), value);
+        }
+        assertEquals(0, AuditRegisterEntityMapper.parseIdType(null));
+        assertEquals(0, AuditRegisterEntityMapper.parseIdType(""));
+    }
+}
@@ -0,0 +1,123 @@
+package com.financial.recon.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.dto.AuditRegisterResponse;
+import com.financial.recon.entity.ArRequestIdempotency;
+import com.financial.recon.repository.ArRequestIdempotencyRepository;
+import com.financial.recon.util.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("請求冪等控制測試")
+class AuditRegisterIdempotencyGuardTest {
+
+    private ArRequestIdempotencyRepository repository;
+    private AuditRegisterIdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ArRequestIdempotencyRepository.class);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        AuditRegisterProperties properties = new AuditRegisterProperties();
+        guard = new AuditRegisterIdempotencyGuard(repository, properties, objectMapper,
+                mock(PlatformTransactionManager.class), new DatabaseConcurrencyLimiter(
+                        mock(DataSource.class), properties, new WorkerThreadFactory(new MockEnvironment())));
+    }
+
+    @Test
+    @DisplayName("測試同時進行的相同請求 - 應該只處理一次並共用結果")
+    void testInFlightDuplicatesAreCoalesced() throws Exception {
+        // Given
+        AuditRegisterRequest request = TestDataBuilder.createBasicRequest();
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            Future<AuditRegisterResponse> first = executor.submit(() -> guard.execute("REQ-001", request, () -> {
+                invocations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return success();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<AuditRegisterResponse> second = executor.submit(() -> guard.execute("REQ-001", request, () -> {
+                invocations.incrementAndGet();
+                return success();
+            }));
+            while (guard.getStats().getCoalesced() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // Then
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, invocations.get());
+            verify(repository, times(1)).saveAndFlush(any(ArRequestIdempotency.class));
+
+            // 完成後的重試由快取返回
+            assertEquals("SUCCESS", guard.execute("REQ-001", request, () -> {
+                throw new AssertionError("should not be reprocessed");
+            }).getResponseCode());
+            assertEquals(1, guard.getStats().getCacheHits());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("測試處理失敗的響應 - 不應保存，重試時重新處理")
+    void testErrorResponseIsNotStored() {
+        // Given
+        AuditRegisterRequest request = TestDataBuilder.createBasicRequest();
+        AuditRegisterResponse error = AuditRegisterResponse.builder().responseCode("ERROR").build();
+
+        // When
+        guard.execute("REQ-002", request, () -> error);
+        AuditRegisterResponse retried = guard.execute("REQ-002", request, this::success);
+
+        // Then
+        assertEquals("SUCCESS", retried.getResponseCode());
+        verify(repository, times(1)).saveAndFlush(any(ArRequestIdempotency.class));
+        assertEquals(2, guard.getStats().getProcessed());
+    }
+
+    private AuditRegisterResponse success() {
+        return AuditRegisterResponse.builder()
+                .responseCode("SUCCESS")
+                .responseMessage("Successfully processed 1 transaction(s)")
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.dto.AuditRegisterResponse;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.dto.SeqNumGapReport;
+import com.financial.recon.entity.DeviceAuditRegisterSummary;
+import com.financial.recon.repository.DeviceArSeqSetRepository;
+import com.financial.recon.repository.DeviceAuditRegisterSummaryRepository;
+import com.financial.recon.repository.MirrorArDetailRepository;
+import com.financial.recon.repository.MirrorArRepository;
+import com.financial.recon.util.TestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分片並行處理在工作執行緒上各自提交，因此本測試不使用 @Transactional，改為前後清理資料
+ */
+@SpringBootTest(properties = {
+        "recon.audit-register.parallel.enabled=true",
+        "recon.audit-register.parallel.worker-threads=3"
+})
+@ActiveProfiles("test")
+@DisplayName("審計註冊服務並行處理測試")
+class AuditRegisterServiceParallelTest {
+
+    @Autowired
+    private AuditRegisterService auditRegisterService;
+
+    @Autowired
+    private MirrorArRepository mirrorArRepository;
+
+    @Autowired
+    private MirrorArDetailRepository mirrorArDetailRepository;
+
+    @Autowired
+    private DeviceAuditRegisterSummaryRepository deviceAuditRegisterSummaryRepository;
+
+    @Autowired
+    private DeviceArSeqSetRepository deviceArSeqSetRepository;
+
+    @Autowired
+    private DeviceSeqNumCache deviceSeqNumCache;
+
+    @Autowired
+    private DeviceSeqNumTracker deviceSeqNumTracker;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        mirrorArRepository.deleteAll();
+        mirrorArDetailRepository.deleteAll();
+        deviceAuditRegisterSummaryRepository.deleteAll();
+        deviceArSeqSetRepository.deleteAll();
+        deviceSeqNumCache.clear();
+    }
+
+    @Test
+    @DisplayName("測試按設備分片並行處理 - 結果應該合併，同一設備的交易保持順序")
+    void testParallelProcessingKeepsPerDeviceOrder() {
+        // Given - 8 個設備，DEVICE-001 另有兩筆交易穿插其中：序列號 2，接著重啟後的序列號 1
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(8);
+        OffsetDateTime baseTime = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        request.getAuditRegisterTxns().get(0).setTransactionDateTime(baseTime);
+        request.getAuditRegisterTxns().add(3, transaction("DEVICE-001", 2, baseTime.plusSeconds(1)));
+        request.getAuditRegisterTxns().add(transaction("DEVICE-001", 1, baseTime.plusSeconds(2)));
+
+        // When
+        AuditRegisterResponse response = auditRegisterService.processAuditRegister(request, "TEST-PARALLEL");
+
+        // Then
+        assertEquals("SUCCESS", response.getResponseCode());
+        assertEquals("Successfully processed 10 transaction(s)", response.getResponseMessage());
+        assertEquals(10, mirrorArRepository.count());
+        assertEquals(8, deviceAuditRegisterSummaryRepository.count());
+
+        DeviceAuditRegisterSummary summary = deviceAuditRegisterSummaryRepository
+                .findByDeviceIdAndBeIdAndBusinessDateAndArTypeIdentifierAndCardMediaTypeId(
+                        "DEVICE-001", 1, LocalDate.now(), "AR-TYPE-001", "CARD-001")
+                .orElseThrow();
+        assertEquals(30L, summary.getTotalCount());
+        assertEquals(2, summary.getLastArSeqNum());
+
+        // 依序處理時最後一筆為重啟，開始新一輪且只含序列號 1
+        SeqNumGapReport report = deviceSeqNumTracker.gapReport("DEVICE-001", 1, LocalDate.now()).orElseThrow();
+        assertEquals(1, report.getEpoch());
+        assertEquals(1, report.getProcessedCount());
+        assertEquals(baseTime.plusSeconds(2).toInstant(), report.getLastTxnTime().toInstant());
+    }
+
+    private AuditRegisterTransaction transaction(String deviceId, int seqNum, OffsetDateTime txnTime) {
+        AuditRegisterTransaction txn = TestDataBuilder.createBasicTransaction();
+        txn.setDeviceId(deviceId);
+        txn.setAuditRegisterSeqNum(seqNum);
+        txn.setTransactionDateTime(txnTime);
+        return txn;
+    }
+}
@@ -1,22 +1,41 @@
 package com.financial.recon.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financial.recon.dto.AuditRegisterEntry;
 import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.config.AuditRegisterProperties;
 import com.financial.recon.dto.AuditRegisterResponse;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.dto.BulkIngestResponse;
+import com.financial.recon.dto.BulkLineIssue;
+import com.financial.recon.dto.SeqNumGapReport;
+import com.financial.recon.dto.SeqNumRange;
+import com.financial.recon.entity.DeviceArSeqSet;
+import com.financial.recon.entity.DeviceArSeqSetId;
 import com.financial.recon.entity.DeviceAuditRegisterSummary;
+import com.financial.recon.repository.DeviceArSeqSetRepository;
 import com.financial.recon.repository.DeviceAuditRegisterSummaryRepository;
 import com.financial.recon.repository.MirrorArDetailRepository;
 import com.financial.recon.repository.MirrorArRepository;
+import com.financial.recon.util.SqlStatementCounter;
+import com.financial.recon.util.StatementCounts;
 import com.financial.recon.util.TestDataBuilder;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,12 +59,35 @@ class AuditRegisterServiceTest {
     @Autowired
     private DeviceAuditRegisterSummaryRepository deviceAuditRegisterSummaryRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DeviceSeqNumCache deviceSeqNumCache;
+
+    @Autowired
+    private DeviceArSeqSetRepository deviceArSeqSetRepository;
+
+    @Autowired
+    private DeviceSeqNumTracker deviceSeqNumTracker;
+
+    @Autowired
+    private AuditRegisterProperties auditRegisterProperties;
+
+    @Autowired
+    private AuditRegisterStreamProcessor auditRegisterStreamProcessor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @BeforeEach
     void setUp() {
         // 清理測試資料
         mirrorArRepository.deleteAll();
         mirrorArDetailRepository.deleteAll();
         deviceAuditRegisterSummaryRepository.deleteAll();
+        deviceArSeqSetRepository.deleteAll();
+        deviceSeqNumCache.clear();
     }
 
     @Test
@@ -86,7 +128,7 @@ class AuditRegisterServiceTest {
         assertTrue(summary.isPresent());
         DeviceAuditRegisterSummary s = summary.get();
         assertEquals(10L, s.getTotalCount());
-        assertEquals(BigDecimal.valueOf(1000.50), s.getTotalValue());
+        assertEquals(new BigDecimal("1000.50"), s.getTotalValue());
         assertEquals(1, s.getLastArSeqNum());
     }
 
@@ -109,7 +151,7 @@ class AuditRegisterServiceTest {
         request2.getAuditRegisterTxns().get(0).getAuditRegisterEntries().get(0)
                 .setCount(15);
         request2.getAuditRegisterTxns().get(0).getAuditRegisterEntries().get(0)
-                .setValue(1500.00);
+                .setValueMinor(150000L);
 
         // When
         auditRegisterService.processAuditRegister(request2, clientRequestId);
@@ -122,7 +164,7 @@ class AuditRegisterServiceTest {
         assertTrue(summary.isPresent());
         DeviceAuditRegisterSummary s = summary.get();
         assertEquals(25L, s.getTotalCount()); // 10 + 15
-        assertEquals(BigDecimal.valueOf(2500.50), s.getTotalValue()); // 1000.50 + 1500.00
+        assertEquals(new BigDecimal("2500.50"), s.getTotalValue()); // 1000.50 + 1500.00
         assertEquals(2, s.getLastArSeqNum());
     }
 
@@ -145,7 +187,7 @@ class AuditRegisterServiceTest {
         request2.getAuditRegisterTxns().get(0).getAuditRegisterEntries().get(0)
                 .setCount(15);
         request2.getAuditRegisterTxns().get(0).getAuditRegisterEntries().get(0)
-                .setValue(1500.00);
+                .setValueMinor(150000L);
         auditRegisterService.processAuditRegister(request2, clientRequestId);
 
         // 設備重啟後 (seqNum = 1，小於之前的最大值 2)
@@ -154,7 +196,7 @@ class AuditRegisterServiceTest {
         request3.getAuditRegisterTxns().get(0).getAuditRegisterEntries().get(0)
                 .setCount(5);
         request3.getAuditRegisterTxns().get(0).getAuditRegisterEntries().get(0)
-                .setValue(500.00);
+                .setValueMinor(50000L);
 
         // When
         auditRegisterService.processAuditRegister(request3, clientRequestId);
@@ -169,7 +211,7 @@ class AuditRegisterServiceTest {
         // 應該累計：10 + 15 + 5 = 30
         assertEquals(30L, s.getTotalCount());
         // 應該累計：1000.50 + 1500.00 + 500.00 = 3000.50
-        assertEquals(BigDecimal.valueOf(3000.50), s.getTotalValue());
+        assertEquals(new BigDecimal("3000.50"), s.getTotalValue());
     }
 
     @Test
@@ -203,7 +245,7 @@ class AuditRegisterServiceTest {
 
         DeviceAuditRegisterSummary s = summaryYesterday.get();
         assertEquals(10L, s.getTotalCount());
-        assertEquals(BigDecimal.valueOf(1000.50), s.getTotalValue());
+        assertEquals(new BigDecimal("1000.50"), s.getTotalValue());
     }
 
     @Test
@@ -268,6 +310,34 @@ class AuditRegisterServiceTest {
         assertNotNull(response.getResponseCode());
     }
 
+    @Test
+    @DisplayName("測試金額溢位 - 溢位的交易不應該寫入任何表頭、明細或摘要，其他交易照常提交")
+    void testOverflowingTransactionWritesNothing() {
+        // Given: DEVICE-002 的第一個條目正常，後兩個條目相加超出 long 範圍
+        AuditRegisterRequest request = TestDataBuilder.createBasicRequest();
+        AuditRegisterTransaction overflowing = TestDataBuilder.createBasicTransaction();
+        overflowing.setDeviceId("DEVICE-002");
+        AuditRegisterEntry otherType = TestDataBuilder.createBasicEntry();
+        otherType.setArTypeIdentifier("AR-TYPE-002");
+        AuditRegisterEntry huge = TestDataBuilder.createBasicEntry();
+        huge.setValueMinor(Long.MAX_VALUE);
+        overflowing.setAuditRegisterEntries(new ArrayList<>(List.of(
+                otherType, huge, TestDataBuilder.createBasicEntry())));
+        request.getAuditRegisterTxns().add(overflowing);
+
+        // When
+        AuditRegisterResponse response = auditRegisterService.processAuditRegister(request, "TEST-OVERFLOW");
+
+        // Then
+        assertEquals("PARTIAL_SUCCESS", response.getResponseCode());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(1, mirrorArRepository.count());
+        assertEquals(1, mirrorArDetailRepository.count());
+        assertEquals(1, deviceAuditRegisterSummaryRepository.count());
+        assertTrue(deviceAuditRegisterSummaryRepository.findAll().stream()
+                .noneMatch(summary -> "DEVICE-002".equals(summary.getDeviceId())));
+    }
+
     @Test
     @DisplayName("測試不同設備的獨立摘要")
     void testDifferentDevicesIndependentSummary() {
@@ -335,5 +405,348 @@ class AuditRegisterServiceTest {
         assertEquals(10L, summary1.get().getTotalCount());
         assertEquals(10L, summary2.get().getTotalCount());
     }
-}
 
+    @Test
+    @DisplayName("測試只追加寫入 - MIRROR_AR / MIRROR_AR_DETAIL 插入前不應該先 SELECT")
+    void testInsertOnlyPathSkipsSelectBeforeInsert() {
+        // Given
+        AuditRegisterRequest request = TestDataBuilder.createMultiEntryRequest();
+        String clientRequestId = "TEST-011";
+        entityManager.flush();
+        SqlStatementCounter.reset();
+
+        // When
+        AuditRegisterResponse response = auditRegisterService.processAuditRegister(request, clientRequestId);
+        entityManager.flush();
+
+        // Then
+        assertEquals("SUCCESS", response.getResponseCode());
+        assertEquals(0, SqlStatementCounter.count("SELECT", "MIRROR_AR"));
+        assertEquals(0, SqlStatementCounter.count("SELECT", "MIRROR_AR_DETAIL"));
+        assertEquals(1, SqlStatementCounter.count("INSERT", "MIRROR_AR"));
+        assertEquals(1, SqlStatementCounter.count("INSERT", "MIRROR_AR_DETAIL"));
+        assertEquals(3, mirrorArDetailRepository.count());
+    }
+
+    @Test
+    @DisplayName("測試批次寫入 - 整個請求的表頭和明細應該各自組成一個 JDBC 批次")
+    void testMirrorRowsWrittenAsJdbcBatches() {
+        // Given
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(20);
+        String clientRequestId = "TEST-012";
+        entityManager.flush();
+        SqlStatementCounter.reset();
+
+        // When
+        AuditRegisterResponse response = auditRegisterService.processAuditRegister(request, clientRequestId);
+
+        // Then
+        assertEquals("SUCCESS", response.getResponseCode());
+        // 20 筆表頭、20 筆明細，批次大小 50，各只需準備一次語句
+        assertEquals(1, SqlStatementCounter.count("INSERT", "MIRROR_AR"));
+        assertEquals(1, SqlStatementCounter.count("INSERT", "MIRROR_AR_DETAIL"));
+        assertEquals(20, mirrorArRepository.count());
+        assertEquals(20, mirrorArDetailRepository.count());
+    }
+
+    @Test
+    @DisplayName("測試摘要預聚合 - 同一請求內相同主鍵的多筆交易應該正確合併累計")
+    void testSummaryPreAggregationWithinRequest() {
+        // Given
+        String deviceId = "DEVICE-001";
+        LocalDate businessDate = LocalDate.now();
+        AuditRegisterRequest request = TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 1);
+        for (int seqNum = 2; seqNum <= 4; seqNum++) {
+            request.getAuditRegisterTxns().addAll(TestDataBuilder.createRequestForDeviceAndDate(
+                    deviceId, businessDate, seqNum).getAuditRegisterTxns());
+        }
+
+        // When
+        AuditRegisterResponse response = auditRegisterService.processAuditRegister(request, "TEST-013");
+
+        // Then
+        assertEquals("SUCCESS", response.getResponseCode());
+        DeviceAuditRegisterSummary s = deviceAuditRegisterSummaryRepository
+                .findByDeviceIdAndBeIdAndBusinessDateAndArTypeIdentifierAndCardMediaTypeId(
+                        deviceId, 1, businessDate, "AR-TYPE-001", "CARD-001")
+                .orElseThrow();
+        assertEquals(40L, s.getTotalCount()); // 4 x 10
+        assertEquals(0, new BigDecimal("4002.00").compareTo(s.getTotalValue())); // 4 x 1000.50
+        assertEquals(4, s.getLastArSeqNum());
+        assertEquals(4, mirrorArRepository.count());
+    }
+
+    @Test
+    @DisplayName("測試批量預取 - 每個請求查詢 DEVICE_AR_SUMMARY 的次數應該固定")
+    void testSeqNumPrefetchUsesConstantQueries() {
+        // Given
+        auditRegisterService.processAuditRegister(TestDataBuilder.createBatchRequest(3), "TEST-014");
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(30);
+        entityManager.flush();
+        SqlStatementCounter.reset();
+
+        // When
+        AuditRegisterResponse response = auditRegisterService.processAuditRegister(request, "TEST-014");
+
+        // Then
+        assertEquals("SUCCESS", response.getResponseCode());
+        assertEquals(1, SqlStatementCounter.count("SELECT", "DEVICE_AR_SUMMARY"));
+        assertEquals(20L, deviceAuditRegisterSummaryRepository
+                .findByDeviceIdAndBeIdAndBusinessDateAndArTypeIdentifierAndCardMediaTypeId(
+                        "DEVICE-002", 1, LocalDate.now(), "AR-TYPE-001", "CARD-001")
+                .orElseThrow().getTotalCount());
+    }
+
+    @Test
+    @DisplayName("測試重送檢測 - 相同交易重送應該跳過，不重複累計")
+    void testReplayedTransactionIsSkipped() {
+        // Given
+        String deviceId = "DEVICE-001";
+        LocalDate businessDate = LocalDate.now();
+        AuditRegisterRequest request = TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 1);
+        auditRegisterService.processAuditRegister(request, "TEST-015");
+
+        // When
+        AuditRegisterResponse response = auditRegisterService.processAuditRegister(request, "TEST-015");
+
+        // Then
+        assertEquals("SUCCESS", response.getResponseCode());
+        assertTrue(response.getResponseMessage().contains("skipped 1 duplicate(s)"));
+        assertEquals(1, mirrorArRepository.count());
+        assertEquals(10L, deviceAuditRegisterSummaryRepository
+                .findByDeviceIdAndBeIdAndBusinessDateAndArTypeIdentifierAndCardMediaTypeId(
+                        deviceId, 1, businessDate, "AR-TYPE-001", "CARD-001")
+                .orElseThrow().getTotalCount());
+    }
+
+    @Test
+    @DisplayName("測試重送檢測 - 設備重啟後才到達的重啟前交易重送應該跳過")
+    void testPreRestartReplayAfterRestartIsSkipped() {
+        // Given: 重啟前處理了 seqNum 1~3，重啟後從 1 開始
+        String deviceId = "DEVICE-001";
+        LocalDate businessDate = LocalDate.now();
+        OffsetDateTime start = OffsetDateTime.now().minusHours(1);
+        AuditRegisterRequest beforeRestart = TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 1);
+        for (int seqNum = 2; seqNum <= 3; seqNum++) {
+            beforeRestart.getAuditRegisterTxns().addAll(TestDataBuilder.createRequestForDeviceAndDate(
+                    deviceId, businessDate, seqNum).getAuditRegisterTxns());
+        }
+        for (int i = 0; i < 3; i++) {
+            beforeRestart.getAuditRegisterTxns().get(i).setTransactionDateTime(start.plusMinutes(i));
+        }
+        auditRegisterService.processAuditRegister(beforeRestart, "TEST-015A");
+        AuditRegisterRequest afterRestart = TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 1);
+        afterRestart.getAuditRegisterTxns().get(0).setTransactionDateTime(start.plusMinutes(30));
+        auditRegisterService.processAuditRegister(afterRestart, "TEST-015B");
+
+        // When: 重啟前的 seqNum 3 延遲重送
+        AuditRegisterRequest lateReplay = TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 3);
+        lateReplay.getAuditRegisterTxns().get(0).setTransactionDateTime(start.plusMinutes(2));
+        AuditRegisterResponse response = auditRegisterService.processAuditRegister(lateReplay, "TEST-015C");
+
+        // Then
+        assertTrue(response.getResponseMessage().contains("skipped 1 duplicate(s)"));
+        assertEquals(4, mirrorArRepository.count());
+        assertEquals(40L, deviceAuditRegisterSummaryRepository
+                .findByDeviceIdAndBeIdAndBusinessDateAndArTypeIdentifierAndCardMediaTypeId(
+                        deviceId, 1, businessDate, "AR-TYPE-001", "CARD-001")
+                .orElseThrow().getTotalCount());
+    }
+
+    @Test
+    @DisplayName("測試缺號查詢 - 應該返回未收到的序列號區間")
+    void testSeqNumGapReport() {
+        // Given
+        String deviceId = "DEVICE-001";
+        LocalDate businessDate = LocalDate.now();
+        AuditRegisterRequest request = TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 1);
+        for (int seqNum : new int[]{2, 5, 6, 9}) {
+            request.getAuditRegisterTxns().addAll(TestDataBuilder.createRequestForDeviceAndDate(
+                    deviceId, businessDate, seqNum).getAuditRegisterTxns());
+        }
+        request.getAuditRegisterTxns().forEach(txn -> txn.setTransactionDateTime(
+                request.getAuditRegisterTxns().get(0).getTransactionDateTime()));
+
+        // When
+        auditRegisterService.processAuditRegister(request, "TEST-016");
+
+        // Then
+        SeqNumGapReport report = deviceSeqNumTracker.gapReport(deviceId, 1, businessDate).orElseThrow();
+        assertEquals(1, report.getMinSeqNum());
+        assertEquals(9, report.getMaxSeqNum());
+        assertEquals(5, report.getProcessedCount());
+        assertEquals(List.of(new SeqNumRange(3, 4), new SeqNumRange(7, 8)), report.getGaps());
+        // 序列號集合的時間戳與同一請求寫入的 MIRROR_AR 使用同一個請求時鐘
+        entityManager.flush();
+        entityManager.clear();
+        OffsetDateTime receivedTime = mirrorArRepository.findAll().get(0).getReceivedTime();
+        DeviceArSeqSet seqSet = deviceArSeqSetRepository.findById(
+                new DeviceArSeqSetId(deviceId, 1, businessDate)).orElseThrow();
+        assertTrue(receivedTime.isEqual(seqSet.getCreatedTime()));
+        assertTrue(receivedTime.isEqual(seqSet.getLastUpdatedTime()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("測試分段提交 - 失敗的段只回滾該段，其他段照常提交")
+    void testChunkedCommitIsolatesFailedChunk() {
+        // Given - 每 2 筆一段，第 3 筆的服務模式超過欄位長度，寫入時失敗
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(6);
+        request.getAuditRegisterTxns().get(2).setDeviceSpecialMode("NORMAL");
+        auditRegisterProperties.setChunkSize(2);
+
+        try {
+            // When
+            AuditRegisterResponse response = auditRegisterService.processAuditRegister(request, "TEST-017");
+
+            // Then
+            assertEquals("PARTIAL_SUCCESS", response.getResponseCode());
+            assertEquals("Processed 4 success, 2 failure(s)", response.getResponseMessage());
+            assertEquals(2, response.getErrors().size());
+            assertEquals(4, mirrorArRepository.count());
+            assertTrue(mirrorArRepository.findAll().stream()
+                    .noneMatch(ar -> ar.getDeviceId().equals("DEVICE-003") || ar.getDeviceId().equals("DEVICE-004")));
+            assertEquals(4, deviceAuditRegisterSummaryRepository.count());
+        } finally {
+            auditRegisterProperties.setChunkSize(0);
+            setUp();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("測試串流分段提交 - 失敗的段記為失敗，其他段照常提交並回報部分成功")
+    void testStreamChunkFailureIsIsolated() throws Exception {
+        // Given - 每 2 筆一段，第 3 筆寫入時失敗
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(6);
+        request.getAuditRegisterTxns().get(2).setDeviceSpecialMode("NORMAL");
+        byte[] body = objectMapper.writeValueAsBytes(request);
+        int originalChunkSize = auditRegisterProperties.getStreaming().getChunkSize();
+        auditRegisterProperties.getStreaming().setChunkSize(2);
+
+        try {
+            // When
+            AuditRegisterResponse response = auditRegisterStreamProcessor.processStream(
+                    new ByteArrayInputStream(body), "TEST-STREAM-FAIL");
+
+            // Then
+            assertEquals("PARTIAL_SUCCESS", response.getResponseCode());
+            assertEquals("Processed 4 success, 2 failure(s)", response.getResponseMessage());
+            assertEquals(2, response.getErrors().size());
+            assertTrue(response.getErrors().get(0).startsWith("Chunk processing failed for deviceId: DEVICE-003"));
+            assertEquals(4, mirrorArRepository.count());
+        } finally {
+            auditRegisterProperties.getStreaming().setChunkSize(originalChunkSize);
+            setUp();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("測試 NDJSON 分段提交 - 失敗的段逐行記為 FAILED，其他段照常提交")
+    void testNdjsonChunkFailureMarksLinesFailed() throws Exception {
+        // Given - 每 2 行一段，第 3 行寫入時失敗
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(6);
+        request.getAuditRegisterTxns().get(2).setDeviceSpecialMode("NORMAL");
+        StringBuilder ndjson = new StringBuilder();
+        for (var txn : request.getAuditRegisterTxns()) {
+            ndjson.append(objectMapper.writeValueAsString(txn)).append('\n');
+        }
+        int originalChunkSize = auditRegisterProperties.getStreaming().getChunkSize();
+        auditRegisterProperties.getStreaming().setChunkSize(2);
+
+        try {
+            // When
+            BulkIngestResponse response = auditRegisterStreamProcessor.processNdjson(
+                    new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), "TEST-NDJSON-FAIL");
+
+            // Then
+            assertEquals("PARTIAL_SUCCESS", response.getResponseCode());
+            assertEquals(4, response.getAccepted());
+            assertEquals(2, response.getFailed());
+            assertEquals(List.of(3L, 4L), response.getIssues().stream().map(BulkLineIssue::getLine).toList());
+            assertTrue(response.getIssues().stream().allMatch(issue -> "FAILED".equals(issue.getStatus())));
+            assertEquals(4, mirrorArRepository.count());
+        } finally {
+            auditRegisterProperties.getStreaming().setChunkSize(originalChunkSize);
+            setUp();
+        }
+    }
+
+    // 每個請求的 SQL 語句預算（JDBC 批次算一次，含 JdbcTemplate 的摘要 MERGE）：
+    // SELECT 2 次（DEVICE_AR_SUMMARY 最大序列號、DEVICE_AR_SEQ_SET）；
+    // INSERT 每張表每 batch-size 列一次（MIRROR_AR、MIRROR_AR_DETAIL）；
+    // MERGE 2 次（補建缺少的 DEVICE_AR_SEQ_SET、摘要），各以一個 JDBC 批次送出全部主鍵；
+    // DEVICE_AR_SEQ_SET 每 batch-size 列 UPDATE 一次。
+    // 語句數只隨批次數增加，不隨交易數或條目數增加
+
+    @Test
+    @DisplayName("測試語句預算 - 單筆交易")
+    void testStatementBudgetForBasicTransaction() {
+        // Given
+        AuditRegisterRequest request = TestDataBuilder.createBasicRequest();
+        entityManager.flush();
+
+        // When
+        StatementCounts counts = StatementCounts.during(
+                () -> auditRegisterService.processAuditRegister(request, "TEST-BUDGET-001"));
+
+        // Then
+        counts.assertBudget(2, 2, 1, 2);
+    }
+
+    @Test
+    @DisplayName("測試語句預算 - 多條目交易的條目不應該增加語句數")
+    void testStatementBudgetForMultiEntryTransaction() {
+        // Given
+        AuditRegisterRequest request = TestDataBuilder.createMultiEntryRequest();
+        entityManager.flush();
+
+        // When
+        StatementCounts counts = StatementCounts.during(
+                () -> auditRegisterService.processAuditRegister(request, "TEST-BUDGET-002"));
+
+        // Then
+        counts.assertBudget(2, 2, 1, 2);
+    }
+
+    @Test
+    @DisplayName("測試語句預算 - 批次交易的語句數只隨 JDBC 批次數增加")
+    void testStatementBudgetForBatch() {
+        // Given: 120 台設備各一筆交易，batch-size 50 → 每張表 3 個批次
+        int transactions = 120;
+        int batches = (transactions + auditRegisterProperties.getBatchSize() - 1)
+                / auditRegisterProperties.getBatchSize();
+        AuditRegisterRequest request = TestDataBuilder.createBatchRequest(transactions);
+        entityManager.flush();
+
+        // When
+        StatementCounts counts = StatementCounts.during(
+                () -> auditRegisterService.processAuditRegister(request, "TEST-BUDGET-003"));
+
+        // Then
+        counts.assertBudget(2, 2L * batches, batches, 2);
+    }
+
+    @Test
+    @DisplayName("測試語句預算 - 設備重啟的請求不應該增加額外查詢")
+    void testStatementBudgetForDeviceRestart() {
+        // Given
+        String deviceId = "DEVICE-001";
+        LocalDate businessDate = LocalDate.now();
+        auditRegisterService.processAuditRegister(
+                TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 1), "TEST-BUDGET-004");
+        auditRegisterService.processAuditRegister(
+                TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 2), "TEST-BUDGET-004");
+        AuditRegisterRequest restart = TestDataBuilder.createRequestForDeviceAndDate(deviceId, businessDate, 1);
+        entityManager.flush();
+        deviceSeqNumCache.clear();
+
+        // When
+        StatementCounts counts = StatementCounts.during(
+                () -> auditRegisterService.processAuditRegister(restart, "TEST-BUDGET-004"));
+
+        // Then
+        counts.assertBudget(2, 2, 1, 2);
+    }
+}
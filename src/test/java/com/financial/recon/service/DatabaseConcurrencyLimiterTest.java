@@ -0,0 +1,67 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.DbConcurrencyStats;
+import com.financial.recon.exception.DatabaseBusyException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("資料庫並行數限制測試")
+class DatabaseConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("測試許可用盡 - 超過等待時間應該拋出 DatabaseBusyException")
+    void testRejectsWhenPermitsExhausted() throws Exception {
+        // Given
+        AuditRegisterProperties properties = new AuditRegisterProperties();
+        properties.getDbConcurrency().setMaxConcurrent(2);
+        properties.getDbConcurrency().setAcquireTimeout(Duration.ofMillis(50));
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(
+                mock(DataSource.class), properties, new WorkerThreadFactory(new MockEnvironment()));
+
+        CountDownLatch holding = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> limiter.run(() -> {
+                    holding.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            // When & Then
+            assertThrows(DatabaseBusyException.class, () -> limiter.call(() -> "never"));
+            DbConcurrencyStats stats = limiter.getStats();
+            assertEquals(2, stats.getMaxConcurrent());
+            assertEquals(2, stats.getInUse());
+            assertEquals(1, stats.getRejected());
+            assertFalse(stats.isVirtualThreads());
+
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals("done", limiter.call(() -> "done"));
+            assertEquals(0, limiter.getStats().getInUse());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
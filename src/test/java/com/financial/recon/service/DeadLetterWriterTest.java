@@ -0,0 +1,163 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.dto.DeadLetterStats;
+import com.financial.recon.entity.MirrorArDetailEx;
+import com.financial.recon.entity.MirrorArEx;
+import com.financial.recon.repository.MirrorArDetailExRepository;
+import com.financial.recon.repository.MirrorArExRepository;
+import com.financial.recon.util.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("例外表非同步寫入測試")
+class DeadLetterWriterTest {
+
+    private MirrorArExRepository mirrorArExRepository;
+    private MirrorArDetailExRepository mirrorArDetailExRepository;
+    private AuditRegisterProperties properties;
+    private DeadLetterWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        mirrorArExRepository = mock(MirrorArExRepository.class);
+        mirrorArDetailExRepository = mock(MirrorArDetailExRepository.class);
+        DatabaseConcurrencyLimiter limiter = mock(DatabaseConcurrencyLimiter.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(limiter).run(any());
+        properties = new AuditRegisterProperties();
+        properties.getDeadLetter().setBatchSize(2);
+        properties.getDeadLetter().setQueueCapacity(4);
+        writer = new DeadLetterWriter(mirrorArExRepository, mirrorArDetailExRepository,
+                new AuditRegisterEntityMapper(), new TimeOrderedReferenceIdGenerator(1), limiter, properties,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @DisplayName("測試失敗交易應該按批次寫入例外表")
+    @SuppressWarnings("unchecked")
+    void testFailedTransactionsAreWrittenInBatches() {
+        // Given
+        writer.submit(transactions(3), RequestClock.snapshot());
+        assertEquals(3, writer.getStats().getQueueDepth());
+
+        // When
+        writer.flush();
+
+        // Then: batch-size 2 → 兩個資料庫交易
+        ArgumentCaptor<List<MirrorArEx>> headers = ArgumentCaptor.forClass(List.class);
+        verify(mirrorArExRepository, times(2)).saveAll(headers.capture());
+        assertEquals(2, headers.getAllValues().get(0).size());
+        assertEquals(1, headers.getAllValues().get(1).size());
+        ArgumentCaptor<List<MirrorArDetailEx>> details = ArgumentCaptor.forClass(List.class);
+        verify(mirrorArDetailExRepository, times(2)).saveAll(details.capture());
+        MirrorArDetailEx detail = details.getAllValues().get(0).get(0);
+        assertEquals(headers.getAllValues().get(0).get(0).getReferenceId(), detail.getReferenceId());
+        assertEquals("001", detail.getArEntryId());
+
+        DeadLetterStats stats = writer.getStats();
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(3, stats.getEnqueued());
+        assertEquals(3, stats.getWritten());
+        assertEquals(2, stats.getBatchCount());
+    }
+
+    @Test
+    @DisplayName("測試佇列已滿時應該丟棄並計數")
+    void testQueueFullDropsAndCounts() {
+        // When
+        writer.submit(transactions(6), RequestClock.snapshot());
+
+        // Then
+        DeadLetterStats stats = writer.getStats();
+        assertEquals(4, stats.getQueueDepth());
+        assertEquals(4, stats.getQueueCapacity());
+        assertEquals(4, stats.getEnqueued());
+        assertEquals(2, stats.getDropped());
+    }
+
+    @Test
+    @DisplayName("測試寫入失敗的批次應該保留並在下次重試")
+    void testFailedBatchIsRetried() {
+        // Given
+        writer.submit(transactions(2), RequestClock.snapshot());
+        doThrow(new IllegalStateException("db down")).when(mirrorArExRepository).saveAll(anyList());
+
+        // When & Then
+        assertThrows(IllegalStateException.class, writer::flush);
+        assertEquals(2, writer.getStats().getQueueDepth());
+        assertEquals(1, writer.getStats().getFailedBatchCount());
+
+        doReturn(List.of()).when(mirrorArExRepository).saveAll(anyList());
+        writer.flush();
+        assertEquals(0, writer.getStats().getQueueDepth());
+        assertEquals(2, writer.getStats().getWritten());
+    }
+
+    @Test
+    @DisplayName("測試無法寫入的記錄 - 整批失敗後逐筆重寫，達到重試上限後計為 poisoned，不再卡住其他記錄")
+    void testPoisonRecordIsGivenUpAfterMaxAttempts() {
+        // Given: DEVICE-002 的記錄每次寫入都失敗
+        properties.getDeadLetter().setMaxAttempts(2);
+        writer.submit(transactions(3), RequestClock.snapshot());
+        doAnswer(invocation -> {
+            List<MirrorArEx> headers = invocation.getArgument(0);
+            if (headers.stream().anyMatch(header -> header.getDeviceId().equals("DEVICE-002"))) {
+                throw new IllegalStateException("value too large for column");
+            }
+            return headers;
+        }).when(mirrorArExRepository).saveAll(anyList());
+
+        // When & Then: 第一次逐筆重寫後 DEVICE-001 寫入，DEVICE-002 留待重試
+        assertThrows(IllegalStateException.class, writer::flush);
+        assertEquals(1, writer.getStats().getWritten());
+        assertEquals(2, writer.getStats().getQueueDepth());
+
+        // 第二次達到上限，DEVICE-002 計為 poisoned，DEVICE-003 照常寫入
+        writer.flush();
+        DeadLetterStats stats = writer.getStats();
+        assertEquals(2, stats.getWritten());
+        assertEquals(1, stats.getPoisoned());
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(2, stats.getFailedBatchCount());
+    }
+
+    @Test
+    @DisplayName("測試資料庫交易中提交的失敗交易應該在提交後才入列，回滾時不入列")
+    void testSubmitInsideTransactionWaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            writer.submit(transactions(1), RequestClock.snapshot());
+            writer.submit(transactions(1), RequestClock.snapshot());
+            assertEquals(0, writer.getStats().getQueueDepth());
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+            // Then: 第一段提交、第二段回滾
+            synchronizations.get(0).afterCommit();
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertEquals(1, writer.getStats().getQueueDepth());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private List<AuditRegisterTransaction> transactions(int count) {
+        return TestDataBuilder.createBatchRequest(count).getAuditRegisterTxns();
+    }
+}
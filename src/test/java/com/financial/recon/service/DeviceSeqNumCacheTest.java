@@ -0,0 +1,81 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("設備序列號快取測試")
+class DeviceSeqNumCacheTest {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2024, 1, 15);
+
+    private DeviceSeqNumCache cache;
+    private List<Set<DeviceBusinessDateKey>> loaderCalls;
+
+    @BeforeEach
+    void setUp() {
+        AuditRegisterProperties properties = new AuditRegisterProperties();
+        properties.getSeqNumCache().setMaxEntries(2);
+        cache = new DeviceSeqNumCache(properties);
+        loaderCalls = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("測試只有未命中的鍵才會交給 loader 載入")
+    void testLoaderOnlyCalledForMisses() {
+        // Given
+        cache.updateAfterCommit(Map.of(key("DEVICE-001"), 5));
+
+        // When
+        Map<DeviceBusinessDateKey, Integer> result = cache.getAll(
+                List.of(key("DEVICE-001"), key("DEVICE-002")),
+                missing -> {
+                    loaderCalls.add(missing);
+                    return Map.of(key("DEVICE-002"), 9);
+                });
+
+        // Then
+        assertEquals(5, result.get(key("DEVICE-001")));
+        assertEquals(9, result.get(key("DEVICE-002")));
+        assertEquals(List.of(Set.of(key("DEVICE-002"))), loaderCalls);
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("測試更新只保留較大的序列號，超過上限時淘汰最久未使用者")
+    void testUpdateKeepsMaxAndEvictsLeastRecentlyUsed() {
+        // Given
+        cache.updateAfterCommit(Map.of(key("DEVICE-001"), 5));
+        cache.updateAfterCommit(Map.of(key("DEVICE-001"), 3));
+        cache.updateAfterCommit(Map.of(key("DEVICE-002"), 1));
+
+        // When
+        cache.getAll(List.of(key("DEVICE-001")), missing -> Map.of());
+        cache.updateAfterCommit(Map.of(key("DEVICE-003"), 1));
+
+        // Then
+        assertEquals(2, cache.getStats().getSize());
+        Map<DeviceBusinessDateKey, Integer> result = cache.getAll(
+                List.of(key("DEVICE-001"), key("DEVICE-002"), key("DEVICE-003")),
+                missing -> {
+                    loaderCalls.add(missing);
+                    return Map.of();
+                });
+        assertEquals(5, result.get(key("DEVICE-001")));
+        assertEquals(List.of(Set.of(key("DEVICE-002"))), loaderCalls);
+    }
+
+    private DeviceBusinessDateKey key(String deviceId) {
+        return new DeviceBusinessDateKey(deviceId, 1, BUSINESS_DATE);
+    }
+}
@@ -0,0 +1,143 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.AuditRegisterEntry;
+import com.financial.recon.dto.AuditRegisterRequest;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import com.financial.recon.dto.MinorUnits;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryDelta;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryId;
+import com.financial.recon.util.TestDataBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("設備摘要聚合器測試")
+class DeviceSummaryAggregatorTest {
+
+    @Test
+    @DisplayName("測試同一主鍵的條目應該合併為一筆增量")
+    void testEntriesWithSameKeyAreFolded() {
+        // Given
+        DeviceSummaryAggregator aggregator = new DeviceSummaryAggregator();
+        LocalDate businessDate = LocalDate.of(2024, 1, 15);
+
+        // When
+        for (int seqNum : new int[]{3, 7, 5}) {
+            AuditRegisterRequest request = TestDataBuilder.createRequestForDeviceAndDate(
+                    "DEVICE-001", businessDate, seqNum);
+            aggregator.add(request.getAuditRegisterTxns().get(0));
+        }
+
+        // Then
+        assertEquals(1, aggregator.deltas().size());
+        assertEquals(3, aggregator.entryCount());
+        DeviceAuditRegisterSummaryDelta delta = aggregator.deltas().iterator().next();
+        assertEquals(30L, delta.getCountDelta());
+        assertEquals(300150L, delta.getValueDeltaMinor());
+        assertEquals(7, delta.getLastArSeqNum());
+    }
+
+    @Test
+    @DisplayName("測試不同主鍵應該保持獨立增量")
+    void testDistinctKeysStaySeparate() {
+        // Given
+        DeviceSummaryAggregator aggregator = new DeviceSummaryAggregator();
+        AuditRegisterTransaction multiEntry = TestDataBuilder.createMultiEntryRequest().getAuditRegisterTxns().get(0);
+        AuditRegisterTransaction otherDevice = TestDataBuilder.createBasicTransaction();
+        otherDevice.setDeviceId("DEVICE-002");
+        otherDevice.getAuditRegisterEntries().get(0).setCardMediaTypeId(null);
+
+        // When
+        aggregator.add(multiEntry);
+        aggregator.add(otherDevice);
+
+        // Then
+        assertEquals(4, aggregator.deltas().size());
+        assertTrue(aggregator.deltas().stream()
+                .anyMatch(delta -> "DEVICE-002".equals(delta.getId().getDeviceId())
+                        && "".equals(delta.getId().getCardMediaTypeId())));
+    }
+
+    @Test
+    @DisplayName("測試數百萬筆條目的金額總和精確無誤差")
+    void testMillionsOfEntriesSumExactly() {
+        // Given: 0.01、0.10、0.07 以 double 累加會產生誤差
+        int transactions = 2_000;
+        int entriesPerTransaction = 1_000;
+        long[] amounts = {1L, 10L, 7L};
+        DeviceSummaryAggregator aggregator = new DeviceSummaryAggregator();
+        long expectedMinor = 0;
+        double doubleTotal = 0;
+
+        // When
+        for (int t = 0; t < transactions; t++) {
+            AuditRegisterTransaction txn = TestDataBuilder.createBasicTransaction();
+            List<AuditRegisterEntry> entries = new ArrayList<>(entriesPerTransaction);
+            for (int e = 0; e < entriesPerTransaction; e++) {
+                AuditRegisterEntry entry = TestDataBuilder.createBasicEntry();
+                long amount = amounts[e % amounts.length];
+                entry.setValueMinor(amount);
+                entries.add(entry);
+                expectedMinor += amount;
+                doubleTotal += amount / 100.0;
+            }
+            txn.setAuditRegisterEntries(entries);
+            aggregator.add(txn);
+        }
+
+        // Then
+        DeviceAuditRegisterSummaryDelta delta = aggregator.deltas().iterator().next();
+        assertEquals(2_000_000, aggregator.entryCount());
+        assertEquals(11_990_000L, expectedMinor);
+        assertEquals(expectedMinor, delta.getValueDeltaMinor());
+        assertEquals("119900.00", MinorUnits.toDecimal(delta.getValueDeltaMinor()).toPlainString());
+        assertNotEquals(119900.00, doubleTotal);
+    }
+
+    @Test
+    @DisplayName("測試金額累加溢位時應該拋出例外而非回繞")
+    void testValueOverflowIsDetected() {
+        // Given
+        DeviceAuditRegisterSummaryDelta delta = DeviceAuditRegisterSummaryDelta.builder()
+                .id(new DeviceAuditRegisterSummaryId("DEVICE-001", 1, LocalDate.of(2024, 1, 15), "AR-TYPE-001", ""))
+                .valueDeltaMinor(Long.MAX_VALUE - 1)
+                .build();
+
+        // When & Then
+        delta.add(0L, 1L, 1);
+        assertEquals(Long.MAX_VALUE, delta.getValueDeltaMinor());
+        assertThrows(ArithmeticException.class, () -> delta.add(0L, 1L, 2));
+        assertEquals(Long.MAX_VALUE, delta.getValueDeltaMinor());
+    }
+
+    @Test
+    @DisplayName("測試交易中途溢位時聚合器內容應該保持不變")
+    void testOverflowingTransactionLeavesAggregatorUnchanged() {
+        // Given: 聚合器已累計一筆交易，下一筆交易的第一個條目正常、第二個條目與已累計值相加溢位
+        DeviceSummaryAggregator aggregator = new DeviceSummaryAggregator();
+        aggregator.add(TestDataBuilder.createBasicTransaction());
+        AuditRegisterTransaction overflowing = TestDataBuilder.createBasicTransaction();
+        overflowing.setAuditRegisterSeqNum(2);
+        AuditRegisterEntry otherType = TestDataBuilder.createBasicEntry();
+        otherType.setArTypeIdentifier("AR-TYPE-002");
+        AuditRegisterEntry huge = TestDataBuilder.createBasicEntry();
+        huge.setValueMinor(Long.MAX_VALUE);
+        overflowing.setAuditRegisterEntries(List.of(otherType, huge));
+
+        // When
+        assertThrows(ArithmeticException.class, () -> aggregator.add(overflowing));
+
+        // Then
+        assertEquals(1, aggregator.deltas().size());
+        assertEquals(1, aggregator.entryCount());
+        DeviceAuditRegisterSummaryDelta delta = aggregator.deltas().iterator().next();
+        assertEquals(10L, delta.getCountDelta());
+        assertEquals(100050L, delta.getValueDeltaMinor());
+        assertEquals(1, delta.getLastArSeqNum());
+    }
+}
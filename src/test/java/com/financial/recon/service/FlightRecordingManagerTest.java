@@ -0,0 +1,114 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.FlightRecordingStatus;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JFR 錄製管理測試")
+class FlightRecordingManagerTest {
+
+    private FlightRecordingManager manager;
+
+    @BeforeEach
+    void setUp() {
+        AuditRegisterProperties properties = new AuditRegisterProperties();
+        properties.getFlightRecording().setSettings("default");
+        manager = new FlightRecordingManager(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.closeRecording();
+    }
+
+    @Test
+    @DisplayName("測試錄製的檔案應該包含審計註冊自訂事件")
+    void testRecordingContainsCustomEvents() throws Exception {
+        // Given
+        assertTrue(manager.start());
+        assertFalse(manager.start(), "同一時間只允許一個錄製");
+
+        // When
+        AuditRegisterEvents.Transaction event = new AuditRegisterEvents.Transaction();
+        event.begin();
+        event.deviceId = "DEVICE-001";
+        event.entryCount = 3;
+        event.commit();
+        assertTrue(manager.stop());
+
+        // Then
+        FlightRecordingStatus status = manager.getStatus();
+        assertEquals("STOPPED", status.getState());
+        assertTrue(status.getSizeBytes() > 0);
+
+        Optional<InputStream> dump = manager.dump();
+        assertTrue(dump.isPresent());
+        Path file = Files.createTempFile("flight-recording-test-", ".jfr");
+        try (InputStream stream = dump.get()) {
+            Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(recorded -> recorded.getEventType().getName()
+                            .equals("com.financial.recon.AuditRegisterTransaction"))
+                    .toList();
+            assertEquals(1, events.size());
+            assertEquals("DEVICE-001", events.get(0).getString("deviceId"));
+            assertEquals(3, events.get(0).getInt("entryCount"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("測試沒有錄製時停止及下載應該返回失敗")
+    void testStopAndDumpWithoutRecording() throws Exception {
+        assertFalse(manager.stop());
+        assertTrue(manager.dump().isEmpty());
+        assertEquals("NONE", manager.getStatus().getState());
+    }
+
+    @Test
+    @DisplayName("測試錄製不應該包含環境變數、系統屬性及 JVM 啟動參數事件")
+    void testRecordingExcludesSecretBearingEvents() throws Exception {
+        // Given
+        List<String> secretEvents = List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty",
+                "jdk.JVMInformation", "jdk.SystemProcess");
+        Map<String, String> settings = FlightRecordingManager.recordingSettings("profile");
+        for (String event : secretEvents) {
+            assertEquals("false", settings.get(event + "#enabled"), event);
+        }
+        assertEquals("true", settings.get("jdk.ExecutionSample#enabled"), "其他設定應該沿用內建設定檔");
+
+        // When
+        assertTrue(manager.start());
+        assertTrue(manager.stop());
+
+        // Then
+        Path file = Files.createTempFile("flight-recording-test-", ".jfr");
+        try (InputStream stream = manager.dump().orElseThrow()) {
+            Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        try {
+            assertTrue(RecordingFile.readAllEvents(file).stream()
+                    .noneMatch(recorded -> secretEvents.contains(recorded.getEventType().getName())));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
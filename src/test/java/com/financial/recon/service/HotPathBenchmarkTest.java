@@ -0,0 +1,163 @@
+package com.financial.recon.service;
+
+import com.financial.recon.benchmark.JmhBenchmarks;
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.AuditRegisterEntry;
+import com.financial.recon.dto.AuditRegisterTransaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 寫入路徑熱點的吞吐量及配置量基準：實體轉換、參考ID、UDSN、卡媒體類型解析及摘要累計
+ * 每個基準處理一批形狀與 TestDataBuilder 相同的輸入，分數為每個操作（每筆交易或每次呼叫）計算；
+ * 結果另存為 target/jmh-hot-path.json，可與之前的結果比較以發現效能退化
+ * 與 AuditRegisterEntityMapper 同一套件，可直接量測套件內的 UDSN 及卡媒體類型解析
+ * 執行方式：mvn -B test -Pbenchmark
+ */
+@Tag("benchmark")
+@DisplayName("寫入路徑熱點基準測試")
+public class HotPathBenchmarkTest {
+
+    private static final int TRANSACTIONS = 100;
+    private static final int ENTRIES_PER_TRANSACTION = 4;
+    private static final int DEVICES = 20;
+    private static final String REFERENCE_ID = "0F3K9Z2M8Q1R7TX";
+    private static final String RESULT_FILE = "target/jmh-hot-path.json";
+
+    @Test
+    @DisplayName("量測每個熱點的吞吐量及每次操作配置的位元組數")
+    void measureHotPaths() throws RunnerException {
+        Collection<RunResult> results = JmhBenchmarks.run(HotPaths.class, RESULT_FILE);
+
+        for (RunResult result : results) {
+            assertTrue(result.getPrimaryResult().getScore() > 0, JmhBenchmarks.name(result));
+        }
+        assertEquals(8, results.size());
+    }
+
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static class HotPaths {
+
+        private final AuditRegisterEntityMapper mapper = new AuditRegisterEntityMapper();
+        private ReferenceIdGenerator timeOrderedGenerator;
+        private ReferenceIdGenerator uuidGenerator;
+        private List<AuditRegisterTransaction> txns;
+        private List<AuditRegisterEntry> entries;
+        private String[] cardMediaTypeIds;
+        private RequestClock clock;
+
+        @Setup
+        public void setUp() {
+            AuditRegisterProperties properties = new AuditRegisterProperties();
+            properties.getReferenceId().setNodeId(1);
+            timeOrderedGenerator = new TimeOrderedReferenceIdGenerator(properties);
+            uuidGenerator = new UuidReferenceIdGenerator();
+            clock = RequestClock.snapshot();
+
+            // 多筆交易落在同一設備，摘要累計時同一主鍵會被重複合併，與實際設備上傳相近
+            txns = JmhBenchmarks.transactions(TRANSACTIONS, ENTRIES_PER_TRANSACTION);
+            entries = new ArrayList<>();
+            for (AuditRegisterTransaction txn : txns) {
+                txn.setDeviceId("DEVICE-" + String.format("%03d", txn.getAuditRegisterSeqNum() % DEVICES));
+                entries.addAll(txn.getAuditRegisterEntries());
+            }
+            cardMediaTypeIds = entries.stream().map(AuditRegisterEntry::getCardMediaTypeId).toArray(String[]::new);
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(TRANSACTIONS)
+        public void buildMirrorAr(Blackhole blackhole) {
+            for (AuditRegisterTransaction txn : txns) {
+                blackhole.consume(mapper.toMirrorAr(txn, REFERENCE_ID, clock));
+            }
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(TRANSACTIONS * ENTRIES_PER_TRANSACTION)
+        public void buildMirrorArDetail(Blackhole blackhole) {
+            int entryIndex = 1;
+            for (AuditRegisterEntry entry : entries) {
+                blackhole.consume(mapper.toMirrorArDetail(entry, REFERENCE_ID, entryIndex, clock));
+                entryIndex = entryIndex % ENTRIES_PER_TRANSACTION + 1;
+            }
+        }
+
+        @Benchmark
+        public String generateReferenceIdTimeOrdered() {
+            return timeOrderedGenerator.nextId();
+        }
+
+        @Benchmark
+        public String generateReferenceIdUuid() {
+            return uuidGenerator.nextId();
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(TRANSACTIONS)
+        public void generateUdsn(Blackhole blackhole) {
+            for (AuditRegisterTransaction txn : txns) {
+                blackhole.consume(AuditRegisterEntityMapper.udsn(txn, clock));
+            }
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(TRANSACTIONS * ENTRIES_PER_TRANSACTION)
+        public void parseIdType(Blackhole blackhole) {
+            for (String cardMediaTypeId : cardMediaTypeIds) {
+                blackhole.consume(AuditRegisterEntityMapper.parseIdType(cardMediaTypeId));
+            }
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(TRANSACTIONS)
+        public DeviceSummaryAggregator summaryAccumulation() {
+            DeviceSummaryAggregator aggregator = new DeviceSummaryAggregator();
+            for (AuditRegisterTransaction txn : txns) {
+                aggregator.add(txn);
+            }
+            return aggregator;
+        }
+
+        /**
+         * 每筆交易的完整轉換：時間戳、表頭、明細及摘要累計，對應 processTransaction 的 CPU 部分
+         */
+        @Benchmark
+        @OperationsPerInvocation(TRANSACTIONS)
+        public void processTransactionCpu(Blackhole blackhole) {
+            DeviceSummaryAggregator aggregator = new DeviceSummaryAggregator();
+            RequestClock requestClock = RequestClock.snapshot();
+            for (AuditRegisterTransaction txn : txns) {
+                String referenceId = timeOrderedGenerator.nextId();
+                blackhole.consume(mapper.toMirrorAr(txn, referenceId, requestClock));
+                int entryIndex = 1;
+                for (AuditRegisterEntry entry : txn.getAuditRegisterEntries()) {
+                    blackhole.consume(mapper.toMirrorArDetail(entry, referenceId, entryIndex++, requestClock));
+                }
+                aggregator.add(txn);
+            }
+            blackhole.consume(aggregator);
+        }
+    }
+}
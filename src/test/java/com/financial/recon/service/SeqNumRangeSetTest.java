@@ -0,0 +1,60 @@
+package com.financial.recon.service;
+
+import com.financial.recon.dto.SeqNumRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("序列號區間集合測試")
+class SeqNumRangeSetTest {
+
+    @Test
+    @DisplayName("測試加入序列號 - 相鄰序列號應該合併為同一區間")
+    void testAddMergesAdjacentRuns() {
+        // Given
+        SeqNumRangeSet set = new SeqNumRangeSet();
+
+        // When
+        for (int seqNum : new int[]{1, 2, 3, 7, 8, 5, 10}) {
+            assertTrue(set.add(seqNum));
+        }
+        assertFalse(set.add(2));
+        assertTrue(set.add(4));
+
+        // Then
+        assertEquals(3, set.runCount()); // 1-5, 7-8, 10
+        assertEquals(8, set.cardinality());
+        assertTrue(set.contains(4));
+        assertFalse(set.contains(6));
+        assertEquals(1, set.min());
+        assertEquals(10, set.max());
+        assertEquals(List.of(new SeqNumRange(6, 6), new SeqNumRange(9, 9)), set.gaps());
+    }
+
+    @Test
+    @DisplayName("測試序列化 - 大量連續序列號應該壓縮為少量位元組且可還原")
+    void testSerializationRoundTrip() {
+        // Given
+        SeqNumRangeSet set = new SeqNumRangeSet();
+        for (int seqNum = 1; seqNum <= 100_000; seqNum++) {
+            if (seqNum % 25_000 != 0) {
+                set.add(seqNum);
+            }
+        }
+
+        // When
+        byte[] bytes = set.toBytes();
+        SeqNumRangeSet restored = SeqNumRangeSet.fromBytes(bytes);
+
+        // Then
+        assertTrue(bytes.length < 32);
+        assertEquals(set.cardinality(), restored.cardinality());
+        assertEquals(set.gaps(), restored.gaps());
+        assertTrue(restored.contains(24_999));
+        assertFalse(restored.contains(25_000));
+        assertTrue(SeqNumRangeSet.fromBytes(null).isEmpty());
+    }
+}
@@ -0,0 +1,104 @@
+package com.financial.recon.service;
+
+import com.financial.recon.config.AuditRegisterProperties;
+import com.financial.recon.dto.MinorUnits;
+import com.financial.recon.dto.SummaryWriteBehindStats;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryDelta;
+import com.financial.recon.entity.DeviceAuditRegisterSummaryId;
+import com.financial.recon.repository.DeviceAuditRegisterSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("摘要延遲寫入緩衝測試")
+class SummaryWriteBehindBufferTest {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2024, 1, 15);
+
+    private DeviceAuditRegisterSummaryRepository repository;
+    private SummaryWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DeviceAuditRegisterSummaryRepository.class);
+        AuditRegisterProperties properties = new AuditRegisterProperties();
+        properties.getWriteBehind().setEnabled(true);
+        buffer = new SummaryWriteBehindBuffer(repository, properties, mock(PlatformTransactionManager.class),
+                new DatabaseConcurrencyLimiter(mock(DataSource.class), properties,
+                        new WorkerThreadFactory(new MockEnvironment())));
+    }
+
+    @Test
+    @DisplayName("測試多次請求的同一主鍵應該合併為一次寫入")
+    @SuppressWarnings("unchecked")
+    void testDeltasAreCoalescedAcrossRequests() {
+        // Given
+        buffer.addAll(List.of(delta("AR-TYPE-001", 10L, "100.00", 1)));
+        buffer.addAll(List.of(delta("AR-TYPE-001", 5L, "50.00", 2), delta("AR-TYPE-002", 1L, "1.00", 2)));
+        buffer.addAll(List.of(delta("AR-TYPE-001", 1L, "1.00", 3)));
+        assertEquals(3, buffer.pendingMaxSeqNum("DEVICE-001", 1, BUSINESS_DATE).orElseThrow());
+
+        // When
+        buffer.flush();
+
+        // Then
+        ArgumentCaptor<Collection<DeviceAuditRegisterSummaryDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, times(1)).upsertAll(captor.capture(), any(OffsetDateTime.class));
+        assertEquals(2, captor.getValue().size());
+        DeviceAuditRegisterSummaryDelta merged = captor.getValue().stream()
+                .filter(d -> "AR-TYPE-001".equals(d.getId().getArTypeIdentifier()))
+                .findFirst().orElseThrow();
+        assertEquals(16L, merged.getCountDelta());
+        assertEquals(15100L, merged.getValueDeltaMinor());
+        assertEquals(3, merged.getLastArSeqNum());
+
+        SummaryWriteBehindStats stats = buffer.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getFlushCount());
+        assertEquals(2, stats.getFlushedKeys());
+        assertEquals(0, stats.getBufferedKeys());
+        assertTrue(buffer.pendingMaxSeqNum("DEVICE-001", 1, BUSINESS_DATE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試寫入失敗時增量應該保留在緩衝等待重試")
+    void testFailedFlushKeepsDeltas() {
+        // Given
+        buffer.addAll(List.of(delta("AR-TYPE-001", 10L, "100.00", 1)));
+        doThrow(new IllegalStateException("db down")).when(repository).upsertAll(any(), any());
+
+        // When & Then
+        assertThrows(IllegalStateException.class, buffer::flush);
+        SummaryWriteBehindStats stats = buffer.getStats();
+        assertEquals(1, stats.getBufferedKeys());
+        assertEquals(1, stats.getFailedFlushCount());
+        assertEquals(0, stats.getFlushCount());
+        assertEquals(0, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, buffer.pendingMaxSeqNum("DEVICE-001", 1, BUSINESS_DATE).orElseThrow());
+    }
+
+    private DeviceAuditRegisterSummaryDelta delta(String arType, long count, String value, int seqNum) {
+        return DeviceAuditRegisterSummaryDelta.builder()
+                .id(new DeviceAuditRegisterSummaryId("DEVICE-001", 1, BUSINESS_DATE, arType, "CARD-001"))
+                .countDelta(count)
+                .valueDeltaMinor(MinorUnits.fromDecimal(new BigDecimal(value)))
+                .lastArSeqNum(seqNum)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.financial.recon.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("依時間遞增參考ID產生器測試")
+class TimeOrderedReferenceIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    @DisplayName("測試多執行緒同時產生 - 所有ID應該唯一，且每個執行緒內嚴格遞增")
+    void testUniqueAndOrderedAcrossThreads() throws Exception {
+        // Given
+        TimeOrderedReferenceIdGenerator generator = new TimeOrderedReferenceIdGenerator(7);
+        Set<String> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            // When
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    String previous = "";
+                    boolean ordered = true;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        String id = generator.nextId();
+                        ordered &= id.compareTo(previous) > 0;
+                        ids.add(id);
+                        previous = id;
+                    }
+                    return ordered;
+                }));
+            }
+            start.countDown();
+
+            // Then
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+            assertTrue(ids.stream().allMatch(id -> id.length() == TimeOrderedReferenceIdGenerator.LENGTH
+                    && id.endsWith("07")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("測試不同節點 - 同一時間產生的ID應該以節點ID區分")
+    void testNodeComponent() {
+        // Given
+        TimeOrderedReferenceIdGenerator node1 = new TimeOrderedReferenceIdGenerator(1);
+        TimeOrderedReferenceIdGenerator node1023 = new TimeOrderedReferenceIdGenerator(1023);
+
+        // When
+        String id1 = node1.nextId();
+        String id2 = node1023.nextId();
+
+        // Then
+        assertTrue(id1.endsWith("01"));
+        assertTrue(id2.endsWith("ZZ"));
+        assertNotEquals(id1, id2);
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedReferenceIdGenerator(1024));
+    }
+
+    @Test
+    @DisplayName("測試未設定節點ID - 各實例應該使用不同的隨機節點欄位，且仍依時間遞增")
+    void testRandomNodeComponent() {
+        // Given
+        TimeOrderedReferenceIdGenerator instance1 = TimeOrderedReferenceIdGenerator.withRandomNode();
+        TimeOrderedReferenceIdGenerator instance2 = TimeOrderedReferenceIdGenerator.withRandomNode();
+
+        // When
+        String first = instance1.nextId();
+        String second = instance1.nextId();
+        String other = instance2.nextId();
+
+        // Then
+        assertEquals(TimeOrderedReferenceIdGenerator.RANDOM_NODE_LENGTH, first.length());
+        assertTrue(second.compareTo(first) > 0);
+        assertEquals(first.substring(13), second.substring(13));
+        assertNotEquals(first.substring(13), other.substring(13));
+    }
+}
@@ -0,0 +1,147 @@
+package com.financial.recon.util;
+
+import com.financial.recon.repository.DbRoundTripScope;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 語句計數器（僅供測試）
+ * 包裝 DataSource，Statement 每執行一次（JDBC 批次算一次）就按語句類型和資料表計數；
+ * Hibernate 與 JdbcTemplate（摘要、序列號集合的 MERGE）都經過此 DataSource。
+ * 只計算在 DbRoundTripScope 內（審計註冊處理的呼叫端及分片工作執行緒）執行的語句，
+ * 不受例外表寫入等背景執行緒影響。由 SqlStatementCounterConfiguration 註冊
+ */
+public class SqlStatementCounter extends DelegatingDataSource {
+
+    private static final Pattern TABLE_PATTERN = Pattern.compile(
+            "^\\s*(?:select\\b.*?\\bfrom|insert\\s+into|update|delete\\s+from|merge\\s+into)\\s+([a-z0-9_]+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Map<String, AtomicInteger> COUNTS = new ConcurrentHashMap<>();
+
+    public SqlStatementCounter(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * 清空所有計數
+     */
+    public static void reset() {
+        COUNTS.clear();
+    }
+
+    /**
+     * 取得指定類型（SELECT/INSERT/UPDATE/DELETE/MERGE）的語句次數
+     */
+    public static int count(String type) {
+        AtomicInteger counter = COUNTS.get(type.toUpperCase(Locale.ROOT));
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * 取得指定類型且針對指定資料表的語句次數
+     */
+    public static int count(String type, String table) {
+        AtomicInteger counter = COUNTS.get(type.toUpperCase(Locale.ROOT) + ":" + table.toUpperCase(Locale.ROOT));
+        return counter != null ? counter.get() : 0;
+    }
+
+    private static void record(String sql) {
+        if (!DbRoundTripScope.isActive()) {
+            return;
+        }
+        String type = statementType(sql);
+        COUNTS.computeIfAbsent(type, k -> new AtomicInteger()).incrementAndGet();
+        Matcher matcher = TABLE_PATTERN.matcher(sql);
+        if (matcher.find()) {
+            String table = matcher.group(1).toUpperCase(Locale.ROOT);
+            COUNTS.computeIfAbsent(type + ":" + table, k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private static String statementType(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+
+    private static Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = method.invoke(connection, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, (Statement) result, (m, a) -> {
+                    // Statement 的 SQL 在 execute 時傳入；Hibernate 與 JdbcTemplate 都不使用 Statement.addBatch
+                    if (m.getName().startsWith("execute") && a != null && a.length > 0 && a[0] instanceof String sql) {
+                        record(sql);
+                    }
+                    return m.invoke(result, a);
+                });
+                case "prepareStatement" -> proxy(PreparedStatement.class, (PreparedStatement) result,
+                        countExecute(result, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class, (CallableStatement) result,
+                        countExecute(result, (String) args[0]));
+                default -> result;
+            };
+        });
+    }
+
+    private static Invocation countExecute(Object statement, String sql) {
+        return (method, args) -> {
+            Object result = method.invoke(statement, args);
+            if (method.getName().startsWith("execute")) {
+                record(sql);
+            }
+            return result;
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Invocation invocation) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> {
+                try {
+                    yield invocation.invoke(method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    @FunctionalInterface
+    private interface Invocation {
+        Object invoke(Method method, Object[] args) throws Exception;
+    }
+}
@@ -0,0 +1,28 @@
+package com.financial.recon.util;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * 測試時把 DataSource 包上 SqlStatementCounter
+ * 於 src/test/resources/META-INF/spring 的 AutoConfiguration.imports 註冊，所有測試共用同一個 Spring 上下文
+ */
+@AutoConfiguration
+public class SqlStatementCounterConfiguration {
+
+    @Bean
+    public static BeanPostProcessor sqlStatementCounterPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlStatementCounter)) {
+                    return new SqlStatementCounter(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
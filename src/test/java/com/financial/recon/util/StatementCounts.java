@@ -0,0 +1,67 @@
+package com.financial.recon.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 執行期間經 DataSource 送出的 SQL 語句數（JDBC 批次算一次），包含 JdbcTemplate 執行的 MERGE
+ * 以 SqlStatementCounter 計數，只包含審計註冊處理（DbRoundTripScope 內）的語句
+ */
+public final class StatementCounts {
+
+    private final long selects;
+    private final long inserts;
+    private final long updates;
+    private final long merges;
+    private final long deletes;
+
+    private StatementCounts() {
+        this.selects = SqlStatementCounter.count("SELECT");
+        this.inserts = SqlStatementCounter.count("INSERT");
+        this.updates = SqlStatementCounter.count("UPDATE");
+        this.merges = SqlStatementCounter.count("MERGE");
+        this.deletes = SqlStatementCounter.count("DELETE");
+    }
+
+    /**
+     * 執行 work 並返回期間送出的語句數
+     */
+    public static StatementCounts during(Runnable work) {
+        SqlStatementCounter.reset();
+        work.run();
+        return new StatementCounts();
+    }
+
+    /**
+     * 斷言各類語句數與預算相同；多於預算表示出現 N+1 等退化，少於預算表示預算需要更新
+     */
+    public void assertBudget(long expectedSelects, long expectedInserts, long expectedUpdates, long expectedMerges) {
+        String actual = toString();
+        assertEquals(expectedSelects, selects, "SELECT statements: " + actual);
+        assertEquals(expectedInserts, inserts, "INSERT statements: " + actual);
+        assertEquals(expectedUpdates, updates, "UPDATE statements: " + actual);
+        assertEquals(expectedMerges, merges, "MERGE statements: " + actual);
+        assertEquals(0, deletes, "DELETE statements: " + actual);
+    }
+
+    public long getSelects() {
+        return selects;
+    }
+
+    public long getInserts() {
+        return inserts;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getMerges() {
+        return merges;
+    }
+
+    @Override
+    public String toString() {
+        return "select=" + selects + ", insert=" + inserts + ", update=" + updates + ", merge=" + merges
+                + ", delete=" + deletes;
+    }
+}
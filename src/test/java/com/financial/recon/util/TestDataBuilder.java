@@ -42,7 +42,7 @@ public class TestDataBuilder {
         txn.setAuditRegisterSeqNum(1);
         txn.setBusinessDate(LocalDate.now());
         txn.setDeviceTypeId("TYPE-001");
-        txn.setDeviceSpecialMode("NORMAL");
+        txn.setDeviceSpecialMode("NOR");
         txn.setServiceId("SERVICE-001");
         
         List<AuditRegisterEntry> entries = new ArrayList<>();
@@ -61,7 +61,7 @@ public class TestDataBuilder {
         entry.setArTypeIdentifier("AR-TYPE-001");
         entry.setCardMediaTypeId("CARD-001");
         entry.setCount(10);
-        entry.setValue(1000.50);
+        entry.setValueMinor(100050L);
         return entry;
     }
 
@@ -79,7 +79,7 @@ public class TestDataBuilder {
         List<AuditRegisterEntry> entries = new ArrayList<>();
         AuditRegisterEntry entry = createBasicEntry();
         entry.setCount(5);
-        entry.setValue(500.00);
+        entry.setValueMinor(50000L);
         entries.add(entry);
         
         txn.setAuditRegisterEntries(entries);
@@ -103,7 +103,7 @@ public class TestDataBuilder {
         List<AuditRegisterEntry> entries = new ArrayList<>();
         AuditRegisterEntry entry = createBasicEntry();
         entry.setCount(5);
-        entry.setValue(500.00);
+        entry.setValueMinor(50000L);
         entries.add(entry);
         
         txn.setAuditRegisterEntries(entries);
@@ -147,7 +147,7 @@ public class TestDataBuilder {
         entry1.setArTypeIdentifier("AR-TYPE-001");
         entry1.setCardMediaTypeId("CARD-001");
         entry1.setCount(10);
-        entry1.setValue(1000.00);
+        entry1.setValueMinor(100000L);
         entries.add(entry1);
         
         // 第二個條目
@@ -155,7 +155,7 @@ public class TestDataBuilder {
         entry2.setArTypeIdentifier("AR-TYPE-002");
         entry2.setCardMediaTypeId("CARD-002");
         entry2.setCount(5);
-        entry2.setValue(500.00);
+        entry2.setValueMinor(50000L);
         entries.add(entry2);
         
         // 第三個條目
@@ -163,7 +163,7 @@ public class TestDataBuilder {
         entry3.setArTypeIdentifier("AR-TYPE-001");
         entry3.setCardMediaTypeId("CARD-003");
         entry3.setCount(3);
-        entry3.setValue(300.00);
+        entry3.setValueMinor(30000L);
         entries.add(entry3);
         
         txn.setAuditRegisterEntries(entries);